@@ -25,6 +25,8 @@ import com.cl.zlog.formatter.stacktrace.StackTraceFormatter
 import com.cl.zlog.formatter.thread.ThreadFormatter
 import com.cl.zlog.interceptor.Interceptor
 import com.cl.zlog.internal.DefaultsFactory
+import com.cl.zlog.internal.util.ClassCache
+import java.io.File
 
 /**
  * The configuration used for logging, always attached to a [Logger], will affect all logs
@@ -76,6 +78,28 @@ class LogConfiguration internal constructor(builder: Builder) {
      */
     val withBorder: Boolean = builder.withBorder
 
+    /**
+     * Whether the formatting of logs is deferred to a background thread.
+     *
+     * @since 2.1.0
+     */
+    val deferFormatting: Boolean = builder.deferFormatting
+
+    /**
+     * The max length of a message, longer messages are cut before formatting and printing,
+     * [NO_LIMIT] if no limitation.
+     *
+     * @since 2.1.0
+     */
+    val maxMessageLength: Int = builder.maxMessageLength
+
+    /**
+     * The file to spill the full oversized messages to, null if not spilling.
+     *
+     * @since 2.1.0
+     */
+    val spillFile: File? = builder.spillFile
+
     /**
      * The JSON formatter used to format the JSON string when log a JSON string.
      */
@@ -115,7 +139,34 @@ class LogConfiguration internal constructor(builder: Builder) {
     /**
      * The object formatters, used when logging an object.
      */
-    private val objectFormatters: Map<Class<*>, ObjectFormatter<*>>? = builder.objectFormatters
+    private val objectFormatters: Map<Class<*>, ObjectFormatter<*>>? =
+        builder.objectFormatters?.let { HashMap(it) }
+
+    /**
+     * The object formatters added by user, i.e. not the builtin ones, they take priority over the
+     * builtin ones when resolving.
+     */
+    private val customObjectFormatters: Map<Class<*>, ObjectFormatter<*>>? =
+        objectFormatters?.let { formatters ->
+            val builtinFormatters = DefaultsFactory.builtinObjectFormatters()
+            formatters.filter { builtinFormatters[it.key] !== it.value }
+        }
+
+    /**
+     * The object formatters resolved for each concrete class, [NO_OBJECT_FORMATTER] if none. The
+     * classes are weakly referenced, so logging objects of many short-lived classes, e.g. lambdas
+     * and proxies, doesn't keep them in memory.
+     */
+    private val resolvedObjectFormatters: ClassCache<Any>? =
+        if (objectFormatters != null) {
+            ClassCache { clazz ->
+                resolveObjectFormatter(clazz, customObjectFormatters!!)
+                    ?: resolveObjectFormatter(clazz, objectFormatters)
+                    ?: NO_OBJECT_FORMATTER
+            }
+        } else {
+            null
+        }
 
     /**
      * The interceptors, used to intercept the log when logging.
@@ -127,23 +178,60 @@ class LogConfiguration internal constructor(builder: Builder) {
     /**
      * Get [ObjectFormatter] for specific object.
      *
+     * The formatter of the object's class is used if any, otherwise the formatter of `Object[]`
+     * for arrays of any reference type, otherwise the formatter of the nearest superclass,
+     * otherwise the formatter of the first interface found, searched breadth-first from the
+     * interfaces of the class and then those of its superclasses, in the order they are declared.
+     * The formatters added by [Builder.addObjectFormatter] are searched first, the builtin ones,
+     * e.g. [com.cl.zlog.formatter.message.`object`.BoundedObjectFormatter] for collections, are
+     * only used if none of them matches. The result is resolved only once for each class.
+     *
      * @param object the object
      * @param T    the type of object
      * @return the object formatter for the object, or null if not found
      * @since 1.1.0
      */
     fun <T> getObjectFormatter(`object`: T): ObjectFormatter<in T>? {
-        if (objectFormatters == null) {
+        val resolvedObjectFormatters = resolvedObjectFormatters ?: return null
+        val formatter = resolvedObjectFormatters.get((`object` as Any).javaClass)
+        @Suppress("UNCHECKED_CAST")
+        return if (formatter === NO_OBJECT_FORMATTER) null else formatter as ObjectFormatter<in T>
+    }
+
+    private fun resolveObjectFormatter(
+        clazz: Class<*>,
+        objectFormatters: Map<Class<*>, ObjectFormatter<*>>
+    ): ObjectFormatter<*>? {
+        if (objectFormatters.isEmpty()) {
             return null
         }
+        objectFormatters[clazz]?.let { return it }
+        if (clazz.isArray && !clazz.componentType.isPrimitive) {
+            // Arrays of any reference type are also arrays of objects.
+            objectFormatters[Array<Any>::class.java]?.let { return it }
+        }
+        var superclass: Class<*>? = clazz.superclass
+        while (superclass != null) {
+            objectFormatters[superclass]?.let { return it }
+            superclass = superclass.superclass
+        }
 
-        var clazz: Class<in T>? = `object`!!::class.java as Class<in T>
-        var formatter: ObjectFormatter<in T>?
-        do {
-            formatter = objectFormatters?.get(clazz as Class<*>) as? ObjectFormatter<in T>
-            clazz = clazz?.superclass as? Class<in T>
-        } while (formatter == null && clazz != null)
-        return formatter
+        val interfaces = ArrayDeque<Class<*>>()
+        superclass = clazz
+        while (superclass != null) {
+            interfaces.addAll(superclass.interfaces)
+            superclass = superclass.superclass
+        }
+        val visited = HashSet<Class<*>>()
+        while (interfaces.isNotEmpty()) {
+            val itf = interfaces.removeFirst()
+            if (!visited.add(itf)) {
+                continue
+            }
+            objectFormatters[itf]?.let { return it }
+            interfaces.addAll(itf.interfaces)
+        }
+        return null
     }
 
     /**
@@ -206,6 +294,21 @@ class LogConfiguration internal constructor(builder: Builder) {
          */
         internal var withBorder: Boolean = false
 
+        /**
+         * Whether the formatting of logs is deferred to a background thread.
+         */
+        internal var deferFormatting: Boolean = false
+
+        /**
+         * The max length of a message.
+         */
+        internal var maxMessageLength: Int = NO_LIMIT
+
+        /**
+         * The file to spill the full oversized messages to.
+         */
+        internal var spillFile: File? = null
+
         /**
          * The JSON formatter used to format the JSON string when log a JSON string.
          */
@@ -264,6 +367,9 @@ class LogConfiguration internal constructor(builder: Builder) {
             this.stackTraceOrigin = logConfiguration.stackTraceOrigin
             this.stackTraceDepth = logConfiguration.stackTraceDepth
             this.withBorder = logConfiguration.withBorder
+            this.deferFormatting = logConfiguration.deferFormatting
+            this.maxMessageLength = logConfiguration.maxMessageLength
+            this.spillFile = logConfiguration.spillFile
             this.jsonFormatter = logConfiguration.jsonFormatter
             this.xmlFormatter = logConfiguration.xmlFormatter
             this.throwableFormatter = logConfiguration.throwableFormatter
@@ -483,6 +589,90 @@ class LogConfiguration internal constructor(builder: Builder) {
             return this
         }
 
+        /**
+         * Enable deferred formatting, only the raw inputs of a log are captured on the calling
+         * thread: the time, the thread, the stack frames, and the strings, boxed primitives or
+         * enums to log, or a copy of the format arguments if all of them are such values.
+         * Formatting them, intercepting and printing the log are all done later on a background
+         * thread, in the order of logging.
+         *
+         * Other objects, arrays, throwables, and arguments containing them may be changed after
+         * logging, so their messages are still formatted on the calling thread, and only the
+         * rest of the work is deferred. The thread info is captured when logging, only the
+         * thread name if the default [ThreadFormatter] is used, otherwise the thread info is
+         * formatted on the calling thread. The interceptors and printers are called on the
+         * background thread. If formatting a message fails on the background thread, the log is
+         * printed with the error instead.
+         *
+         * At most 10000 logs wait to be formatted, logging threads block when exceeded, so logs
+         * are never dropped or reordered.
+         *
+         * The logs still being formatted are printed by [ZLog.drain].
+         *
+         * @return the builder
+         * @since 2.1.0
+         */
+        fun enableDeferredFormatting(): Builder {
+            this.deferFormatting = true
+            return this
+        }
+
+        /**
+         * Disable deferred formatting, the logs are formatted on the calling thread, which is the
+         * default.
+         *
+         * @return the builder
+         * @since 2.1.0
+         */
+        fun disableDeferredFormatting(): Builder {
+            this.deferFormatting = false
+            return this
+        }
+
+        /**
+         * Set the max length of a message, [NO_LIMIT] by default.
+         *
+         * A longer message is cut to the max length, with a marker telling the original length,
+         * before it's formatted with the border, intercepted, flattened and printed, so a runaway
+         * huge message doesn't get copied again and again. The oversized messages are counted in
+         * [ZLog.oversizedMessageCount].
+         *
+         * A JSON or XML string longer than the max length is logged as is, without being
+         * formatted by the [JsonFormatter] or [XmlFormatter]. The limit doesn't apply to the
+         * input of the [ObjectFormatter]s and the [ThrowableFormatter], the object or throwable is
+         * formatted in full before the result is cut, use a
+         * [com.cl.zlog.formatter.message.`object`.BoundedObjectFormatter] to bound the work of
+         * formatting large containers.
+         *
+         * @param maxMessageLength the max length of a message
+         * @return the builder
+         * @see spillOversizedMessagesTo
+         * @since 2.1.0
+         */
+        fun maxMessageLength(maxMessageLength: Int): Builder {
+            require(maxMessageLength > 0) { "maxMessageLength must be positive" }
+            this.maxMessageLength = maxMessageLength
+            return this
+        }
+
+        /**
+         * Spill the full messages longer than [maxMessageLength] to a separate file, each one
+         * under a header line with an id, which is referenced by the marker of the cut message.
+         *
+         * The spill file is written in a background thread, the logs are not held up by the
+         * disk, and the spilled messages are flushed by [ZLog.drain]. If too many oversized
+         * messages are waiting to be spilled, the new ones are only cut. The spill file is renamed
+         * with a ".bak" suffix when exceeds 8 MB, replacing the previous backup.
+         *
+         * @param spillFile the file to spill the full messages to
+         * @return the builder
+         * @since 2.1.0
+         */
+        fun spillOversizedMessagesTo(spillFile: File): Builder {
+            this.spillFile = spillFile
+            return this
+        }
+
         /**
          * Set the JSON formatter used when log a JSON string.
          *
@@ -640,4 +830,19 @@ class LogConfiguration internal constructor(builder: Builder) {
             }
         }
     }
-}
\ No newline at end of file
+
+    companion object {
+
+        /**
+         * No limit on the length of a message.
+         *
+         * @since 2.1.0
+         */
+        const val NO_LIMIT = Int.MAX_VALUE
+
+        /**
+         * Marks a class resolved to no object formatter.
+         */
+        private val NO_OBJECT_FORMATTER = Any()
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog;
+
+import com.cl.zlog.flattener.EventFlattener;
+import com.cl.zlog.flattener.Flattener2;
+import com.cl.zlog.flattener.Flattener3;
+import com.cl.zlog.internal.FlattenerCompat;
+
+/**
+ * An immutable log record, with the time it was created.
+ * <p>
+ * Unlike {@link LogItem}, which is handed to interceptors and may be modified, a log event is
+ * never changed once created, so it is safe to keep it around or share it between threads, e.g.
+ * when a printer buffers logs and prints them later.
+ * <p>
+ * The same event is passed to all the printers, so the first printer flattening it with a
+ * flattener keeps the result, and the other printers using an equal flattener reuse it, see
+ * {@link #flatten(Flattener2)}.
+ *
+ * @see com.cl.zlog.printer.EventPrinter
+ * @since 2.1.0
+ */
+public class LogEvent {
+
+  /**
+   * The time milliseconds when the log was created.
+   */
+  public final long timeMillis;
+
+  /**
+   * Level of the log.
+   *
+   * @see LogLevel
+   */
+  public final int level;
+
+  /**
+   * The tag, should not be null.
+   */
+  public final String tag;
+
+  /**
+   * The formatted message, with the thread info, stack trace info and border if any, should not
+   * be null.
+   */
+  public final String msg;
+
+  /**
+   * The message without the thread info, stack trace info and border, same as {@link #msg} if
+   * none of them is added.
+   */
+  public final String rawMsg;
+
+  /**
+   * The formatted thread info, null if thread info is disabled.
+   */
+  public final String threadInfo;
+
+  /**
+   * The formatted stack trace info, null if stack trace info is disabled.
+   */
+  public final String stackTraceInfo;
+
+  /**
+   * The flattened logs, each node is immutable and new nodes are added to the head.
+   */
+  private volatile FlattenedLog flattenedLogs;
+
+  public LogEvent(long timeMillis, int level, String tag, String msg) {
+    this(timeMillis, level, tag, msg, msg, null, null);
+  }
+
+  public LogEvent(long timeMillis, int level, String tag, String msg, String rawMsg,
+                  String threadInfo, String stackTraceInfo) {
+    this.timeMillis = timeMillis;
+    this.level = level;
+    this.tag = tag;
+    this.msg = msg;
+    this.rawMsg = rawMsg;
+    this.threadInfo = threadInfo;
+    this.stackTraceInfo = stackTraceInfo;
+  }
+
+  /**
+   * Flatten this event with the flattener, or reuse the result of an equal flattener, see
+   * {@link Object#equals(Object)} of the flatteners. An {@link EventFlattener} is given the whole
+   * event.
+   * <p>
+   * If several threads flatten the event at the same time, it may be flattened more than once,
+   * which is harmless.
+   *
+   * @param flattener the flattener
+   * @return the flattened log
+   * @since 2.1.0
+   */
+  public String flatten(Flattener2 flattener) {
+    FlattenedLog head = flattenedLogs;
+    for (FlattenedLog node = head; node != null; node = node.next) {
+      if (node.flattener == flattener || node.flattener.equals(flattener)) {
+        return node.log;
+      }
+    }
+    String log;
+    if (flattener instanceof EventFlattener
+        && FlattenerCompat.canFlattenEventTo((EventFlattener) flattener)) {
+      StringBuilder sb = new StringBuilder(64 + tag.length() + msg.length());
+      ((EventFlattener) flattener).flattenTo(this, sb);
+      log = sb.toString();
+    } else {
+      log = flattener.flatten(timeMillis, level, tag, msg).toString();
+    }
+    flattenedLogs = new FlattenedLog(flattener, log, head);
+    return log;
+  }
+
+  /**
+   * Flatten this event with the flattener and append it to the buffer, the result of an equal
+   * flattener is reused if any, see {@link #flatten(Flattener2)}, otherwise the event is
+   * flattened into the buffer directly, without creating an intermediate string, unless the
+   * flattener is a subclass overriding only {@link Flattener2#flatten}, which is still used.
+   *
+   * @param flattener the flattener
+   * @param sb        the buffer to append the flattened log to
+   * @since 2.1.0
+   */
+  public void flattenTo(Flattener3 flattener, StringBuilder sb) {
+    for (FlattenedLog node = flattenedLogs; node != null; node = node.next) {
+      if (node.flattener == flattener || node.flattener.equals(flattener)) {
+        sb.append(node.log);
+        return;
+      }
+    }
+    if (flattener instanceof EventFlattener
+        && FlattenerCompat.canFlattenEventTo((EventFlattener) flattener)) {
+      ((EventFlattener) flattener).flattenTo(this, sb);
+    } else if (FlattenerCompat.canFlattenTo(flattener)) {
+      flattener.flattenTo(timeMillis, level, tag, msg, sb);
+    } else {
+      // A subclass overriding only flatten(), which must not be bypassed.
+      sb.append(flatten(flattener));
+    }
+  }
+
+  private static final class FlattenedLog {
+
+    final Flattener2 flattener;
+
+    final String log;
+
+    final FlattenedLog next;
+
+    FlattenedLog(Flattener2 flattener, String log, FlattenedLog next) {
+      this.flattener = flattener;
+      this.log = log;
+      this.next = next;
+    }
+  }
+}
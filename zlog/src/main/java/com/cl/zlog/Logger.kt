@@ -17,19 +17,26 @@
 package com.cl.zlog
 
 import com.cl.zlog.formatter.border.BorderFormatter
+import com.cl.zlog.formatter.border.DefaultBorderFormatter
 import com.cl.zlog.formatter.message.json.JsonFormatter
 import com.cl.zlog.formatter.message.`object`.ObjectFormatter
 import com.cl.zlog.formatter.message.throwable.ThrowableFormatter
 import com.cl.zlog.formatter.message.xml.XmlFormatter
 import com.cl.zlog.formatter.stacktrace.StackTraceFormatter
+import com.cl.zlog.formatter.thread.DefaultThreadFormatter
 import com.cl.zlog.formatter.thread.ThreadFormatter
 import com.cl.zlog.interceptor.Interceptor
 import com.cl.zlog.internal.DefaultsFactory
+import com.cl.zlog.internal.DeferredFormattingWorker
+import com.cl.zlog.internal.MessageSizeGuard
 import com.cl.zlog.internal.Platform
 import com.cl.zlog.internal.SystemCompat
 import com.cl.zlog.internal.util.StackTraceUtil
+import com.cl.zlog.printer.EventPrinter
 import com.cl.zlog.printer.Printer
 import com.cl.zlog.printer.PrinterSet
+import com.cl.zlog.printer.SelectivePrinter
+import java.io.File
 import java.util.*
 
 /**
@@ -102,6 +109,19 @@ class Logger {
                 logConfigBuilder.disableBorder()
             }
         }
+        if (builder.deferFormattingSet) {
+            if (builder.deferFormatting) {
+                logConfigBuilder.enableDeferredFormatting()
+            } else {
+                logConfigBuilder.disableDeferredFormatting()
+            }
+        }
+        if (builder.maxMessageLength != 0) {
+            logConfigBuilder.maxMessageLength(builder.maxMessageLength)
+        }
+        if (builder.spillFile != null) {
+            logConfigBuilder.spillOversizedMessagesTo(builder.spillFile!!)
+        }
 
         if (builder.jsonFormatter != null) {
             logConfigBuilder.jsonFormatter(builder.jsonFormatter!!)
@@ -159,7 +179,7 @@ class Logger {
      * @param args   the arguments of the message to log
      */
     fun v(format: String, vararg args: Any?) {
-        printlnWithFormat(LogLevel.VERBOSE, format, *args)
+        printlnWithFormat(LogLevel.VERBOSE, format, args)
     }
 
     /**
@@ -208,7 +228,7 @@ class Logger {
      * @param args   the arguments of the message to log
      */
     fun d(format: String, vararg args: Any?) {
-        printlnWithFormat(LogLevel.DEBUG, format, *args)
+        printlnWithFormat(LogLevel.DEBUG, format, args)
     }
 
     /**
@@ -257,7 +277,7 @@ class Logger {
      * @param args   the arguments of the message to log
      */
     fun i(format: String, vararg args: Any?) {
-        printlnWithFormat(LogLevel.INFO, format, *args)
+        printlnWithFormat(LogLevel.INFO, format, args)
     }
 
     /**
@@ -306,7 +326,7 @@ class Logger {
      * @param args   the arguments of the message to log
      */
     fun w(format: String, vararg args: Any?) {
-        printlnWithFormat(LogLevel.WARN, format, *args)
+        printlnWithFormat(LogLevel.WARN, format, args)
     }
 
     /**
@@ -355,7 +375,7 @@ class Logger {
      * @param args   the arguments of the message to log
      */
     fun e(format: String, vararg args: Any?) {
-        printlnWithFormat(LogLevel.ERROR, format, *args)
+        printlnWithFormat(LogLevel.ERROR, format, args)
     }
 
     /**
@@ -409,7 +429,7 @@ class Logger {
      * @since 1.4.0
      */
     fun log(logLevel: Int, format: String, vararg args: Any?) {
-        printlnWithFormat(logLevel, format, *args)
+        printlnWithFormat(logLevel, format, args)
     }
 
     /**
@@ -441,10 +461,14 @@ class Logger {
      * @param json the JSON string to log
      */
     fun json(json: String) {
-        if (LogLevel.DEBUG < logConfiguration.logLevel) {
+        if (!isLoggable(LogLevel.DEBUG)) {
             return
         }
-        printlnInternal(LogLevel.DEBUG, logConfiguration.jsonFormatter.format(json))
+        printlnFormatting(LogLevel.DEBUG, true) {
+            // Don't pay for formatting what would be cut anyway.
+            if (json.length > logConfiguration.maxMessageLength) json
+            else logConfiguration.jsonFormatter.format(json)
+        }
     }
 
     /**
@@ -453,10 +477,14 @@ class Logger {
      * @param xml the XML string to log
      */
     fun xml(xml: String) {
-        if (LogLevel.DEBUG < logConfiguration.logLevel) {
+        if (!isLoggable(LogLevel.DEBUG)) {
             return
         }
-        printlnInternal(LogLevel.DEBUG, logConfiguration.xmlFormatter.format(xml))
+        printlnFormatting(LogLevel.DEBUG, true) {
+            // Don't pay for formatting what would be cut anyway.
+            if (xml.length > logConfiguration.maxMessageLength) xml
+            else logConfiguration.xmlFormatter.format(xml)
+        }
     }
 
     /**
@@ -466,16 +494,17 @@ class Logger {
      * @param object   the object to print
      */
     private fun <T> println(logLevel: Int, `object`: T?) {
-        if (logLevel < logConfiguration.logLevel) {
+        if (!isLoggable(logLevel)) {
             return
         }
-        val objectString: String = if (`object` != null) {
-            val objectFormatter = logConfiguration.getObjectFormatter(`object`)
-            objectFormatter?.format(`object`) ?: `object`.toString()
-        } else {
-            "null"
+        printlnFormatting(logLevel, isImmutable(`object`)) {
+            if (`object` != null) {
+                val objectFormatter = logConfiguration.getObjectFormatter(`object`)
+                objectFormatter?.format(`object`) ?: `object`.toString()
+            } else {
+                "null"
+            }
         }
-        printlnInternal(logLevel, objectString)
     }
 
     /**
@@ -485,10 +514,18 @@ class Logger {
      * @param array    the array to print
      */
     private fun println(logLevel: Int, array: Array<Any?>?) {
-        if (logLevel < logConfiguration.logLevel) {
+        if (!isLoggable(logLevel)) {
             return
         }
-        printlnInternal(logLevel, Arrays.deepToString(array))
+        // The elements may be changed after logging, never deferred.
+        printlnFormatting(logLevel, false) {
+            if (array != null) {
+                val objectFormatter = logConfiguration.getObjectFormatter(array)
+                objectFormatter?.format(array) ?: Arrays.deepToString(array)
+            } else {
+                "null"
+            }
+        }
     }
 
     /**
@@ -496,13 +533,16 @@ class Logger {
      *
      * @param logLevel the log level of the printing log
      * @param format   the format of the printing log, null if just need to concat arguments
-     * @param args     the arguments of the printing log
+     * @param args     the arguments of the printing log, owned by the caller
      */
-    private fun printlnWithFormat(logLevel: Int, format: String, vararg args: Any?) {
-        if (logLevel < logConfiguration.logLevel) {
+    private fun printlnWithFormat(logLevel: Int, format: String, args: Array<out Any?>) {
+        if (!isLoggable(logLevel)) {
             return
         }
-        printlnInternal(logLevel, formatArgs(format, *args))
+        val deferrable = logConfiguration.deferFormatting && args.all { isImmutable(it) }
+        // The caller may reuse the array after logging.
+        val argsToFormat = if (deferrable) args.copyOf() else args
+        printlnFormatting(logLevel, deferrable) { formatArgs(format, *argsToFormat) }
     }
 
     /**
@@ -512,10 +552,10 @@ class Logger {
      * @param msg      the message you would like to log
      */
     internal fun println(logLevel: Int, msg: String?) {
-        if (logLevel < logConfiguration.logLevel) {
+        if (!isLoggable(logLevel)) {
             return
         }
-        printlnInternal(logLevel, msg ?: "")
+        printlnFormatting(logLevel, true) { msg ?: "" }
     }
 
     /**
@@ -526,41 +566,148 @@ class Logger {
      * @param tr       a throwable object to log
      */
     private fun println(logLevel: Int, msg: String?, tr: Throwable) {
-        if (logLevel < logConfiguration.logLevel) {
+        if (!isLoggable(logLevel)) {
             return
         }
-        printlnInternal(
-            logLevel, (if (msg.isNullOrEmpty())
-                "" else (msg + SystemCompat.lineSeparator))
-                    + logConfiguration.throwableFormatter.format(tr)
-        )
+        // The throwable may be changed after logging, e.g. by addSuppressed, never deferred.
+        printlnFormatting(logLevel, false) {
+            (if (msg.isNullOrEmpty())
+                "" else (msg + SystemCompat.lineSeparator)) +
+                    logConfiguration.throwableFormatter.format(tr)
+        }
     }
 
     /**
-     * Print a log in a new line internally.
+     * Whether a log with the level should be printed, checked before any formatting work.
+     *
+     * Interceptors may change the level and tag of a log, so the printers are only asked here
+     * if there is no interceptor, otherwise they are asked after interception.
      *
      * @param logLevel the log level of the printing log
-     * @param msg      the message you would like to log
+     * @return true if the log should be formatted and printed
      */
-    private fun printlnInternal(logLevel: Int, msg: String) {
-        var currentLogLevel = logLevel
-        var tag = logConfiguration.tag
-        val thread = if (logConfiguration.withThread)
-            logConfiguration.threadFormatter.format(Thread.currentThread())
-        else null
+    private fun isLoggable(logLevel: Int): Boolean {
+        if (logLevel < logConfiguration.logLevel) {
+            return false
+        }
+        return logConfiguration.interceptors != null
+                || printer !is SelectivePrinter
+                || printer.isLoggable(logLevel, logConfiguration.tag)
+    }
+
+    /**
+     * Format the message and print it, on the calling thread, or on the background thread later
+     * if formatting is deferred, with the time, thread and stack trace captured now.
+     *
+     * Only the messages formatted from immutable inputs are formatted later, the others are
+     * formatted now, and printed later with the deferred logs, in the order of logging.
+     *
+     * @param logLevel   the log level of the printing log
+     * @param deferrable whether the inputs of [formatMsg] are immutable, so it can be called later
+     * @param formatMsg  the function to format the message
+     */
+    private inline fun printlnFormatting(
+        logLevel: Int,
+        deferrable: Boolean,
+        crossinline formatMsg: () -> String
+    ) {
+        val timeMillis = System.currentTimeMillis()
         val stackTrace = if (logConfiguration.withStackTrace)
-            logConfiguration.stackTraceFormatter.format(
-                StackTraceUtil.getCroppedRealStackTrack(
-                    Throwable().stackTrace,
-                    logConfiguration.stackTraceOrigin,
-                    logConfiguration.stackTraceDepth
-                )
+            StackTraceUtil.captureRealStackTrace(
+                logConfiguration.stackTraceOrigin,
+                logConfiguration.stackTraceDepth
             )
         else null
+        if (logConfiguration.deferFormatting) {
+            if (deferrable) {
+                printlnDeferred(logLevel, timeMillis, stackTrace) { formatMsg() }
+            } else {
+                val msg = formatMsg()
+                printlnDeferred(logLevel, timeMillis, stackTrace) { msg }
+            }
+        } else {
+            val threadInfo = if (logConfiguration.withThread)
+                logConfiguration.threadFormatter.format(Thread.currentThread())
+            else null
+            printlnInternal(logLevel, formatMsg(), timeMillis, threadInfo, stackTrace)
+        }
+    }
+
+    /**
+     * Format the message and print it on the background thread later, the thread info is captured
+     * now, without keeping the thread: only the name for the [DefaultThreadFormatter], which is
+     * formatted later, or the thread info formatted now for any other [ThreadFormatter], which
+     * may read anything of the thread.
+     *
+     * @param logLevel   the log level of the printing log
+     * @param timeMillis the time when the log is logged
+     * @param stackTrace the stack trace of logging, null if stack trace info is disabled
+     * @param formatMsg  the function to format the message
+     */
+    private fun printlnDeferred(
+        logLevel: Int,
+        timeMillis: Long,
+        stackTrace: Array<StackTraceElement>?,
+        formatMsg: () -> String
+    ) {
+        val threadFormatter = logConfiguration.threadFormatter
+        val thread = if (logConfiguration.withThread) Thread.currentThread() else null
+        val threadName = if (thread != null && threadFormatter is DefaultThreadFormatter)
+            thread.name
+        else null
+        val threadInfo = if (thread != null && threadName == null)
+            threadFormatter.format(thread)
+        else null
+        DeferredFormattingWorker.enqueue(printer, Runnable {
+            val info = if (threadName != null)
+                (threadFormatter as DefaultThreadFormatter).formatName(threadName)
+            else threadInfo
+            val msg = try {
+                formatMsg()
+            } catch (e: Exception) {
+                // Too late to throw to the caller, print the log with the error instead.
+                "Format log failed: $e"
+            }
+            printlnInternal(logLevel, msg, timeMillis, info, stackTrace)
+        })
+    }
 
-        var currentThread = thread
-        var currentStackTrace = stackTrace
-        var currentMsg = msg
+    /**
+     * Whether the value can't be changed after logging, so it can be formatted later.
+     */
+    private fun isImmutable(value: Any?): Boolean {
+        return value == null || value is String || value is Enum<*> || value is Boolean
+                || value is Char || value is Int || value is Long || value is Short
+                || value is Byte || value is Float || value is Double
+    }
+
+    /**
+     * Print a log in a new line internally.
+     *
+     * @param logLevel   the log level of the printing log
+     * @param msg        the message you would like to log
+     * @param timeMillis the time when the log is logged
+     * @param threadInfo the formatted thread info, null if thread info is disabled
+     * @param stackTrace the stack trace of logging, null if stack trace info is disabled
+     */
+    private fun printlnInternal(
+        logLevel: Int,
+        msg: String,
+        timeMillis: Long,
+        threadInfo: String?,
+        stackTrace: Array<StackTraceElement>?
+    ) {
+        var currentLogLevel = logLevel
+        var tag = logConfiguration.tag
+        var currentThread = threadInfo
+        var currentStackTrace = if (stackTrace != null)
+            logConfiguration.stackTraceFormatter.format(stackTrace)
+        else null
+        var currentMsg = if (msg.length > logConfiguration.maxMessageLength)
+            MessageSizeGuard.guard(
+                msg, logConfiguration.maxMessageLength, timeMillis, tag, logConfiguration.spillFile
+            )
+        else msg
 
         if (logConfiguration.interceptors != null) {
             var log = LogItem(currentLogLevel, tag, currentThread, currentStackTrace, currentMsg)
@@ -589,16 +736,35 @@ class Logger {
             currentThread = log.threadInfo
             currentStackTrace = log.stackTraceInfo
             currentMsg = log.msg
+
+            if (printer is SelectivePrinter && !printer.isLoggable(currentLogLevel, tag)) {
+                return
+            }
         }
 
-        printer.println(
-            currentLogLevel, tag, if (logConfiguration.withBorder)
-                logConfiguration.borderFormatter.format(arrayOf(currentThread ?: "", currentStackTrace ?: "", currentMsg))
+        val borderFormatter = logConfiguration.borderFormatter
+        val formattedMsg = if (logConfiguration.withBorder)
+            if (borderFormatter is DefaultBorderFormatter)
+                borderFormatter.format(currentThread, currentStackTrace, currentMsg)
             else
-                ((if (currentThread != null) (currentThread + SystemCompat.lineSeparator) else "") +
-                        (if (currentStackTrace != null) (currentStackTrace + SystemCompat.lineSeparator) else "") +
-                        currentMsg)
-        )
+                borderFormatter.format(
+                    listOfNotNull(currentThread, currentStackTrace, currentMsg).toTypedArray()
+                )
+        else
+            ((if (currentThread != null) (currentThread + SystemCompat.lineSeparator) else "") +
+                    (if (currentStackTrace != null) (currentStackTrace + SystemCompat.lineSeparator) else "") +
+                    currentMsg)
+        if (printer is EventPrinter) {
+            // A single event shared by all printers, so the flattened log can be reused.
+            printer.println(
+                LogEvent(
+                    timeMillis, currentLogLevel, tag, formattedMsg, currentMsg,
+                    currentThread, currentStackTrace
+                )
+            )
+        } else {
+            printer.println(currentLogLevel, tag, formattedMsg)
+        }
     }
 
     /**
@@ -683,6 +849,26 @@ class Logger {
          */
         internal var borderSet: Boolean = false
 
+        /**
+         * Whether the formatting of logs is deferred to a background thread.
+         */
+        internal var deferFormatting: Boolean = false
+
+        /**
+         * Whether we have enabled/disabled deferred formatting.
+         */
+        internal var deferFormattingSet: Boolean = false
+
+        /**
+         * The max length of a message, 0 if not set.
+         */
+        internal var maxMessageLength: Int = 0
+
+        /**
+         * The file to spill the full oversized messages to.
+         */
+        internal var spillFile: File? = null
+
         /**
          * The JSON formatter when [Logger] log a JSON string.
          */
@@ -943,6 +1129,60 @@ class Logger {
             return this
         }
 
+        /**
+         * Enable deferred formatting, the logs are formatted and printed later on a background
+         * thread, only the raw inputs are captured on the calling thread.
+         *
+         * @return the builder
+         * @see LogConfiguration.Builder.enableDeferredFormatting
+         * @since 2.1.0
+         */
+        fun enableDeferredFormatting(): Builder {
+            deferFormatting = true
+            deferFormattingSet = true
+            return this
+        }
+
+        /**
+         * Disable deferred formatting, the logs are formatted on the calling thread.
+         *
+         * @return the builder
+         * @since 2.1.0
+         */
+        fun disableDeferredFormatting(): Builder {
+            deferFormatting = false
+            deferFormattingSet = true
+            return this
+        }
+
+        /**
+         * Set the max length of a message, longer messages are cut before formatting and
+         * printing.
+         *
+         * @param maxMessageLength the max length of a message
+         * @return the builder
+         * @see LogConfiguration.Builder.maxMessageLength
+         * @since 2.1.0
+         */
+        fun maxMessageLength(maxMessageLength: Int): Builder {
+            require(maxMessageLength > 0) { "maxMessageLength must be positive" }
+            this.maxMessageLength = maxMessageLength
+            return this
+        }
+
+        /**
+         * Spill the full oversized messages to a separate file.
+         *
+         * @param spillFile the file to spill the full messages to
+         * @return the builder
+         * @see LogConfiguration.Builder.spillOversizedMessagesTo
+         * @since 2.1.0
+         */
+        fun spillOversizedMessagesTo(spillFile: File): Builder {
+            this.spillFile = spillFile
+            return this
+        }
+
         /**
          * Set the [JsonFormatter].
          *
@@ -26,10 +26,15 @@ import com.cl.zlog.formatter.stacktrace.StackTraceFormatter
 import com.cl.zlog.formatter.thread.ThreadFormatter
 import com.cl.zlog.interceptor.Interceptor
 import com.cl.zlog.internal.DefaultsFactory
+import com.cl.zlog.internal.DrainingExceptionHandler
+import com.cl.zlog.internal.MessageSizeGuard
 import com.cl.zlog.internal.Platform
+import com.cl.zlog.internal.printer.DrainableRegistry
 import com.cl.zlog.internal.util.StackTraceUtil
+import com.cl.zlog.printer.Drainable
 import com.cl.zlog.printer.Printer
 import com.cl.zlog.printer.PrinterSet
+import java.io.File
 
 /**
  * A log tool which can be used in android or java, the most important feature is it can print the
@@ -85,6 +90,10 @@ import com.cl.zlog.printer.PrinterSet
  * <br>[disableStackTrace],
  * <br>[enableBorder],
  * <br>[disableBorder],
+ * <br>[enableDeferredFormatting],
+ * <br>[disableDeferredFormatting],
+ * <br>[maxMessageLength],
+ * <br>[spillOversizedMessagesTo],
  * <br>[jsonFormatter],
  * <br>[xmlFormatter],
  * <br>[threadFormatter],
@@ -126,6 +135,8 @@ import com.cl.zlog.printer.PrinterSet
  */
 object ZLog {
 
+    private const val DEFAULT_DRAIN_TIMEOUT_MILLIS = 3000L
+
     /**
      * Global logger for all direct logging via [ZLog].
      */
@@ -468,6 +479,71 @@ object ZLog {
         return Logger.Builder().disableBorder()
     }
 
+    /**
+     * Start to customize a [Logger] and enable deferred formatting, the logs are formatted and
+     * printed later on a background thread, only the raw inputs are captured on the calling
+     * thread.
+     *
+     * @return the [Logger.Builder] to build the [Logger]
+     * @see LogConfiguration.Builder.enableDeferredFormatting
+     * @since 2.1.0
+     */
+    @JvmStatic
+    fun enableDeferredFormatting(): Logger.Builder {
+        return Logger.Builder().enableDeferredFormatting()
+    }
+
+    /**
+     * Start to customize a [Logger] and disable deferred formatting, the logs are formatted on
+     * the calling thread.
+     *
+     * @return the [Logger.Builder] to build the [Logger]
+     * @since 2.1.0
+     */
+    @JvmStatic
+    fun disableDeferredFormatting(): Logger.Builder {
+        return Logger.Builder().disableDeferredFormatting()
+    }
+
+    /**
+     * Start to customize a [Logger] and set the max length of a message, longer messages are cut
+     * before formatting and printing.
+     *
+     * @param maxMessageLength the max length of a message
+     * @return the [Logger.Builder] to build the [Logger]
+     * @see LogConfiguration.Builder.maxMessageLength
+     * @since 2.1.0
+     */
+    @JvmStatic
+    fun maxMessageLength(maxMessageLength: Int): Logger.Builder {
+        return Logger.Builder().maxMessageLength(maxMessageLength)
+    }
+
+    /**
+     * Start to customize a [Logger] and spill the full oversized messages to a separate file.
+     *
+     * @param spillFile the file to spill the full messages to
+     * @return the [Logger.Builder] to build the [Logger]
+     * @see LogConfiguration.Builder.spillOversizedMessagesTo
+     * @since 2.1.0
+     */
+    @JvmStatic
+    fun spillOversizedMessagesTo(spillFile: File): Logger.Builder {
+        return Logger.Builder().spillOversizedMessagesTo(spillFile)
+    }
+
+    /**
+     * Get the number of messages cut for exceeding [LogConfiguration.maxMessageLength], by all
+     * loggers since the process started.
+     *
+     * @return the number of oversized messages
+     * @since 2.1.0
+     */
+    @JvmStatic
+    fun oversizedMessageCount(): Long {
+        return MessageSizeGuard.oversizedCount()
+    }
+
     /**
      * Start to customize a [Logger] and set the [JsonFormatter].
      *
@@ -943,6 +1019,54 @@ object ZLog {
         sLogger!!.xml(xml)
     }
 
+    /**
+     * Print and flush all the logs still pending in asynchronous printers, such as
+     * [com.cl.zlog.printer.file.FilePrinter], block until done or timeout.
+     *
+     * @param timeoutMillis the max time to wait for all printers, in milliseconds
+     * @return true if all pending logs are printed, false if timeout
+     * @see Drainable
+     * @since 2.1.0
+     */
+    @JvmStatic
+    fun drain(timeoutMillis: Long): Boolean {
+        return DrainableRegistry.drainAll(timeoutMillis)
+    }
+
+    /**
+     * Install a default uncaught exception handler, which logs the uncaught exception with level
+     * [LogLevel.ERROR], and then [drain] all the asynchronous printers, so the logs right before
+     * the crash are not lost. The previous default handler is called after that.
+     *
+     * @param timeoutMillis the max time to wait for all printers, in milliseconds
+     * @since 2.1.0
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun installCrashHandler(timeoutMillis: Long = DEFAULT_DRAIN_TIMEOUT_MILLIS) {
+        val previous = Thread.getDefaultUncaughtExceptionHandler()
+        if (previous is DrainingExceptionHandler) {
+            return
+        }
+        Thread.setDefaultUncaughtExceptionHandler(DrainingExceptionHandler(previous, timeoutMillis))
+    }
+
+    /**
+     * Add a shutdown hook, which will [drain] all the asynchronous printers when the virtual
+     * machine is shutting down normally, mostly used in java, since android apps are normally
+     * killed without running shutdown hooks.
+     *
+     * @param timeoutMillis the max time to wait for all printers, in milliseconds
+     * @since 2.1.0
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun installShutdownHook(timeoutMillis: Long = DEFAULT_DRAIN_TIMEOUT_MILLIS) {
+        Runtime.getRuntime().addShutdownHook(Thread {
+            DrainableRegistry.drainAll(timeoutMillis)
+        })
+    }
+
     /**
      * Compatibility class with [android.util.Log].
      */
@@ -18,23 +18,20 @@ package com.cl.zlog.flattener;
 
 import com.cl.zlog.LogLevel;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import com.cl.zlog.internal.util.TimestampFormatter;
+
 import java.util.Locale;
+import java.util.TimeZone;
 
 /**
  * Simply join the timestamp, log level, tag and message together.
  *
  * @since 1.3.0
  */
-public class DefaultFlattener implements Flattener, Flattener2 {
+public class DefaultFlattener implements Flattener, Flattener3 {
 
-  private static final ThreadLocal<SimpleDateFormat> DATE_FORMAT = new ThreadLocal<SimpleDateFormat>() {
-    @Override
-    protected SimpleDateFormat initialValue() {
-      return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
-    }
-  };
+  private final TimestampFormatter timestampFormatter = new TimestampFormatter(
+      "yyyy-MM-dd HH:mm:ss", TimeZone.getDefault(), Locale.getDefault());
 
   @Override
   public CharSequence flatten(int logLevel, String tag, String message) {
@@ -43,9 +40,37 @@ public class DefaultFlattener implements Flattener, Flattener2 {
 
   @Override
   public CharSequence flatten(long timeMillis, int logLevel, String tag, String message) {
-    return DATE_FORMAT.get().format(new Date(timeMillis))
-        + '|' + LogLevel.getShortLevelName(logLevel)
-        + '|' + tag
-        + '|' + message;
+    StringBuilder sb = new StringBuilder(32 + tag.length() + message.length());
+    flattenTo(timeMillis, logLevel, tag, message, sb);
+    return sb.toString();
+  }
+
+  @Override
+  public void flattenTo(long timeMillis, int logLevel, String tag, String message,
+                        StringBuilder sb) {
+    timestampFormatter.formatTo(timeMillis, sb);
+    sb.append('|').append(LogLevel.getShortLevelName(logLevel))
+        .append('|').append(tag)
+        .append('|').append(message);
+  }
+
+  /**
+   * Default flatteners are equal, so a log flattened by one of them can be reused by the others,
+   * see {@link com.cl.zlog.LogEvent#flatten(Flattener2)}. Instances of subclasses may hold other
+   * states, they are only equal to themselves.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    return o != null && getClass() == DefaultFlattener.class
+        && o.getClass() == DefaultFlattener.class;
+  }
+
+  @Override
+  public int hashCode() {
+    return getClass() == DefaultFlattener.class
+        ? DefaultFlattener.class.hashCode() : super.hashCode();
   }
 }
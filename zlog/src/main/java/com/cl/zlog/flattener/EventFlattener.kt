@@ -0,0 +1,41 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.flattener
+
+import com.cl.zlog.LogEvent
+
+/**
+ * A [Flattener3] which can flatten a whole [LogEvent], so it can see the parts of log which are
+ * not passed to other flatteners, e.g. the thread info and stack trace info kept apart from the
+ * message.
+ *
+ * The event is only available when the printer is given one, otherwise the log is flattened by
+ * [flattenTo] with the message, which already contains the thread info and stack trace info.
+ *
+ * @see LogEvent.flatten
+ * @since 2.1.0
+ */
+interface EventFlattener : Flattener3 {
+
+    /**
+     * Flatten the event, and append it to the buffer.
+     *
+     * @param event the log event
+     * @param sb    the buffer to append the flattened log to
+     */
+    fun flattenTo(event: LogEvent, sb: StringBuilder)
+}
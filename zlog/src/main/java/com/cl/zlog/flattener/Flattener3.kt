@@ -0,0 +1,40 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.flattener
+
+/**
+ * A [Flattener2] which can also append the flattened log to a caller-supplied buffer, so no
+ * intermediate string is created for each log, e.g. when writing logs to file.
+ *
+ * Both ways of flattening must produce the same log, a subclass overriding one of them should
+ * also override the other.
+ *
+ * @since 2.1.0
+ */
+interface Flattener3 : Flattener2 {
+
+    /**
+     * Flatten the log, and append it to the buffer.
+     *
+     * @param timeMillis the time milliseconds of log
+     * @param logLevel   the level of log
+     * @param tag        the tag of log
+     * @param message    the message of log
+     * @param sb         the buffer to append the flattened log to
+     */
+    fun flattenTo(timeMillis: Long, logLevel: Int, tag: String, message: String, sb: StringBuilder)
+}
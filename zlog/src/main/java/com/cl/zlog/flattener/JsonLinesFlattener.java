@@ -0,0 +1,237 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.flattener;
+
+import com.cl.zlog.LogEvent;
+import com.cl.zlog.LogLevel;
+import com.cl.zlog.internal.util.TimestampFormatter;
+
+/**
+ * Flatten the log into a JSON object in a single line, the format known as JSON Lines, e.g.
+ * <pre>
+ * {"time":1480482000000,"level":"DEBUG","tag":"my_tag","msg":"Simple message"}
+ * </pre>
+ * The thread info and stack trace info, when enabled, are written as "thread" and "stack"
+ * fields if the printer passes the whole {@link LogEvent} to the flattener, otherwise they stay in
+ * the message.
+ * <p>
+ * The time is written as milliseconds since epoch by default, or as a string in the given date
+ * pattern, see {@link #JsonLinesFlattener(String)}.
+ * <p>
+ * Strings are escaped in place, the runs of characters needing no escaping are copied in bulk,
+ * and the log is built in a reused buffer, so flattening a log costs about the same as
+ * {@link DefaultFlattener}.
+ *
+ * @since 2.1.0
+ */
+public class JsonLinesFlattener implements Flattener, EventFlattener {
+
+  private static final int MAX_REUSABLE_BUILDER_CAPACITY = 8 * 1024;
+
+  private static final ThreadLocal<StringBuilder> REUSABLE_BUILDER = new ThreadLocal<>();
+
+  private static final int MAX_REUSABLE_CHARS_SIZE = 8 * 1024;
+
+  /**
+   * Reusable buffer to copy the chars of a string needing escaping.
+   */
+  private static final ThreadLocal<char[]> REUSABLE_CHARS = new ThreadLocal<>();
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private final String datePattern;
+
+  private final TimestampFormatter timestampFormatter;
+
+  /**
+   * Constructor, the time is written as milliseconds since epoch.
+   */
+  public JsonLinesFlattener() {
+    this.datePattern = null;
+    this.timestampFormatter = null;
+  }
+
+  /**
+   * Constructor, the time is written as a string in the date pattern.
+   *
+   * @param datePattern the date pattern, e.g. "yyyy-MM-dd'T'HH:mm:ss.SSSZ", see
+   *                    {@link java.text.SimpleDateFormat}
+   * @throws IllegalArgumentException if the pattern is invalid, or produces characters which need
+   *                                  escaping in JSON
+   */
+  public JsonLinesFlattener(String datePattern) {
+    this.datePattern = datePattern;
+    this.timestampFormatter = new TimestampFormatter(datePattern);
+    String sample = timestampFormatter.format(System.currentTimeMillis());
+    for (int i = 0; i < sample.length(); i++) {
+      if (needsEscaping(sample.charAt(i))) {
+        throw new IllegalArgumentException("Date pattern not allowed in JSON: " + datePattern);
+      }
+    }
+  }
+
+  @Override
+  public CharSequence flatten(int logLevel, String tag, String message) {
+    return flatten(System.currentTimeMillis(), logLevel, tag, message);
+  }
+
+  @Override
+  public CharSequence flatten(long timeMillis, int logLevel, String tag, String message) {
+    StringBuilder sb = REUSABLE_BUILDER.get();
+    if (sb == null) {
+      sb = new StringBuilder();
+      REUSABLE_BUILDER.set(sb);
+    }
+    sb.setLength(0);
+    flattenTo(timeMillis, logLevel, tag, message, sb);
+    String flattenedLog = sb.toString();
+    if (sb.capacity() > MAX_REUSABLE_BUILDER_CAPACITY) {
+      // Don't keep a huge builder for an occasional huge log.
+      REUSABLE_BUILDER.remove();
+    }
+    return flattenedLog;
+  }
+
+  @Override
+  public void flattenTo(long timeMillis, int logLevel, String tag, String message,
+                        StringBuilder sb) {
+    appendLog(timeMillis, logLevel, tag, null, null, message, sb);
+  }
+
+  @Override
+  public void flattenTo(LogEvent event, StringBuilder sb) {
+    appendLog(event.timeMillis, event.level, event.tag, event.threadInfo, event.stackTraceInfo,
+        event.rawMsg, sb);
+  }
+
+  private void appendLog(long timeMillis, int logLevel, String tag, String threadInfo,
+                         String stackTraceInfo, String message, StringBuilder sb) {
+    sb.ensureCapacity(sb.length() + 64 + tag.length() + message.length());
+    sb.append("{\"time\":");
+    if (timestampFormatter == null) {
+      sb.append(timeMillis);
+    } else {
+      sb.append('"');
+      timestampFormatter.formatTo(timeMillis, sb);
+      sb.append('"');
+    }
+    sb.append(",\"level\":\"").append(LogLevel.getLevelName(logLevel));
+    sb.append("\",\"tag\":\"");
+    appendEscaped(tag, sb);
+    if (threadInfo != null) {
+      sb.append("\",\"thread\":\"");
+      appendEscaped(threadInfo, sb);
+    }
+    if (stackTraceInfo != null) {
+      sb.append("\",\"stack\":\"");
+      appendEscaped(stackTraceInfo, sb);
+    }
+    sb.append("\",\"msg\":\"");
+    appendEscaped(message, sb);
+    sb.append("\"}");
+  }
+
+  /**
+   * Append the string as the content of a JSON string, copying the characters needing no escaping
+   * in bulk.
+   */
+  static void appendEscaped(String s, StringBuilder sb) {
+    int length = s.length();
+    int first = 0;
+    while (first < length && !needsEscaping(s.charAt(first))) {
+      first++;
+    }
+    if (first == length) {
+      // Mostly nothing to escape, append(String) is much faster than appending a range.
+      sb.append(s);
+      return;
+    }
+    char[] chars = REUSABLE_CHARS.get();
+    if (chars == null || chars.length < length) {
+      chars = new char[Math.max(length, 256)];
+      if (length <= MAX_REUSABLE_CHARS_SIZE) {
+        REUSABLE_CHARS.set(chars);
+      }
+    }
+    s.getChars(0, length, chars, 0);
+    sb.append(chars, 0, first);
+    int start = first;
+    for (int i = first; i < length; i++) {
+      char c = chars[i];
+      if (!needsEscaping(c)) {
+        continue;
+      }
+      if (i > start) {
+        sb.append(chars, start, i - start);
+      }
+      switch (c) {
+        case '"':
+          sb.append("\\\"");
+          break;
+        case '\\':
+          sb.append("\\\\");
+          break;
+        case '\n':
+          sb.append("\\n");
+          break;
+        case '\r':
+          sb.append("\\r");
+          break;
+        case '\t':
+          sb.append("\\t");
+          break;
+        default:
+          sb.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xF]);
+          break;
+      }
+      start = i + 1;
+    }
+    if (start < length) {
+      sb.append(chars, start, length - start);
+    }
+  }
+
+  private static boolean needsEscaping(char c) {
+    return c < 0x20 || c == '"' || c == '\\';
+  }
+
+  /**
+   * JSON lines flatteners with the same date pattern are equal, so a log flattened by one of them
+   * can be reused by the others, see {@link LogEvent#flatten(Flattener2)}. Instances of
+   * subclasses may hold other states, they are only equal to themselves.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != JsonLinesFlattener.class
+        || o.getClass() != JsonLinesFlattener.class) {
+      return false;
+    }
+    JsonLinesFlattener that = (JsonLinesFlattener) o;
+    return datePattern == null ? that.datePattern == null : datePattern.equals(that.datePattern);
+  }
+
+  @Override
+  public int hashCode() {
+    if (getClass() != JsonLinesFlattener.class) {
+      return super.hashCode();
+    }
+    return getClass().hashCode() * 31 + (datePattern != null ? datePattern.hashCode() : 0);
+  }
+}
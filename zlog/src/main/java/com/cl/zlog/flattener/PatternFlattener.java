@@ -18,11 +18,12 @@ package com.cl.zlog.flattener;
 
 import com.cl.zlog.LogLevel;
 
-import java.text.SimpleDateFormat;
+import com.cl.zlog.internal.util.TimestampFormatter;
+
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.TimeZone;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -83,7 +84,7 @@ import java.util.regex.Pattern;
  *
  * @since 1.3.0
  */
-public class PatternFlattener implements Flattener, Flattener2 {
+public class PatternFlattener implements Flattener, Flattener3 {
 
   private static final String PARAM = "[^{}]*";
   private static final Pattern PARAM_REGEX = Pattern.compile("\\{(" + PARAM + ")\\}");
@@ -96,9 +97,27 @@ public class PatternFlattener implements Flattener, Flattener2 {
 
   static final String DEFAULT_DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
 
+  /**
+   * The max capacity of the reusable builder kept by each thread.
+   */
+  private static final int MAX_REUSABLE_BUILDER_CAPACITY = 8 * 1024;
+
+  private static final ThreadLocal<StringBuilder> REUSABLE_BUILDER = new ThreadLocal<>();
+
   private String pattern;
 
-  private List<ParameterFiller> parameterFillers;
+  /**
+   * The literal text before each parameter filler, and the one after the last filler, so there
+   * is always one more literal than fillers. Unrecognizable parameters are kept in literals.
+   */
+  private String[] literals;
+
+  private ParameterFiller[] parameterFillers;
+
+  /**
+   * The total length of literals, used to estimate the length of flattened log.
+   */
+  private int literalsLength;
 
   /**
    * Constructor.
@@ -111,14 +130,48 @@ public class PatternFlattener implements Flattener, Flattener2 {
     }
     this.pattern = pattern;
 
-    List<String> parameters = parsePattern(pattern);
-    parameterFillers = parseParameters(parameters);
-    if (parameterFillers.size() == 0) {
+    compile(pattern);
+    if (parameterFillers.length == 0) {
       throw new IllegalArgumentException("No recognizable parameter found in the pattern "
           + pattern);
     }
   }
 
+  /**
+   * Split the pattern into literals and parameter fillers, so a log can be flattened in a single
+   * pass, without scanning the pattern again.
+   *
+   * @param pattern the format pattern to flatten the log
+   */
+  private void compile(String pattern) {
+    List<String> literalList = new ArrayList<>(5);
+    List<ParameterFiller> fillerList = new ArrayList<>(4);
+    StringBuilder literal = new StringBuilder();
+    Matcher matcher = PARAM_REGEX.matcher(pattern);
+    int end = 0;
+    while (matcher.find()) {
+      literal.append(pattern, end, matcher.start());
+      ParameterFiller parameterFiller = parseParameter(matcher.group(1));
+      if (parameterFiller != null) {
+        literalList.add(literal.toString());
+        literal.setLength(0);
+        fillerList.add(parameterFiller);
+      } else {
+        // Not recognizable, keep it as is.
+        literal.append(matcher.group());
+      }
+      end = matcher.end();
+    }
+    literal.append(pattern, end, pattern.length());
+    literalList.add(literal.toString());
+
+    literals = literalList.toArray(new String[0]);
+    parameterFillers = fillerList.toArray(new ParameterFiller[0]);
+    for (String l : literals) {
+      literalsLength += l.length();
+    }
+  }
+
   /**
    * Get the list of parameters from the given pattern.
    *
@@ -134,23 +187,6 @@ public class PatternFlattener implements Flattener, Flattener2 {
     return parameters;
   }
 
-  /**
-   * Get the list of parameter fillers from the given parameters.
-   *
-   * @param parameters the given parameters
-   * @return the parameter fillers, or empty if none of the parameters is recognizable
-   */
-  private static List<ParameterFiller> parseParameters(List<String> parameters) {
-    List<ParameterFiller> parameterFillers = new ArrayList<>(parameters.size());
-    for (String parameter : parameters) {
-      ParameterFiller parameterFiller = parseParameter(parameter);
-      if (parameterFiller != null) {
-        parameterFillers.add(parameterFiller);
-      }
-    }
-    return parameterFillers;
-  }
-
   /**
    * Create a parameter filler if the given parameter is recognizable.
    *
@@ -244,48 +280,88 @@ public class PatternFlattener implements Flattener, Flattener2 {
 
   @Override
   public CharSequence flatten(long timeMillis, int logLevel, String tag, String message) {
-    String flattenedLog = pattern;
-    for (ParameterFiller parameterFiller : parameterFillers) {
-      flattenedLog = parameterFiller.fill(flattenedLog, timeMillis, logLevel, tag, message);
+    StringBuilder sb = REUSABLE_BUILDER.get();
+    if (sb == null) {
+      sb = new StringBuilder();
+      REUSABLE_BUILDER.set(sb);
+    }
+    sb.setLength(0);
+    flattenTo(timeMillis, logLevel, tag, message, sb);
+    String flattenedLog = sb.toString();
+    if (sb.capacity() > MAX_REUSABLE_BUILDER_CAPACITY) {
+      // Don't keep a huge builder for an occasional huge log.
+      REUSABLE_BUILDER.remove();
     }
     return flattenedLog;
   }
 
+  @Override
+  public void flattenTo(long timeMillis, int logLevel, String tag, String message,
+                        StringBuilder sb) {
+    sb.ensureCapacity(sb.length() + literalsLength + tag.length() + message.length() + 32);
+    int fillerCount = parameterFillers.length;
+    for (int i = 0; i < fillerCount; i++) {
+      sb.append(literals[i]);
+      parameterFillers[i].fill(sb, timeMillis, logLevel, tag, message);
+    }
+    sb.append(literals[fillerCount]);
+  }
+
+  /**
+   * Pattern flatteners, or classic flatteners, with the same pattern are equal, so a log
+   * flattened by one of them can be reused by the others, see
+   * {@link com.cl.zlog.LogEvent#flatten(Flattener2)}. Instances of other subclasses may fill the
+   * parameters differently, they are only equal to themselves.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass() || !isBuiltinClass()) {
+      return false;
+    }
+    return pattern.equals(((PatternFlattener) o).pattern);
+  }
+
+  @Override
+  public int hashCode() {
+    return isBuiltinClass() ? getClass().hashCode() * 31 + pattern.hashCode() : super.hashCode();
+  }
+
+  private boolean isBuiltinClass() {
+    return getClass() == PatternFlattener.class || getClass() == ClassicFlattener.class;
+  }
+
   /**
-   * Fill the original pattern string with formatted date string.
+   * Fill the flattened log with formatted date string.
    */
   static class DateFiller extends ParameterFiller {
 
     String dateFormat;
 
-    private ThreadLocal<SimpleDateFormat> threadLocalDateFormat = new ThreadLocal<SimpleDateFormat>() {
-
-      @Override
-      protected SimpleDateFormat initialValue() {
-        return new SimpleDateFormat(dateFormat, Locale.US);
-      }
-    };
+    private TimestampFormatter timestampFormatter;
 
     DateFiller(String wrappedParameter, String trimmedParameter, String dateFormat) {
       super(wrappedParameter, trimmedParameter);
       this.dateFormat = dateFormat;
 
       try {
-        // Test the format, will throw an exception if it is a bad format.
-        threadLocalDateFormat.get().format(new Date());
+        // Will throw an exception if it is a bad format.
+        timestampFormatter = new TimestampFormatter(dateFormat, TimeZone.getDefault(), Locale.US);
       } catch (Exception e) {
         throw new IllegalArgumentException("Bad date pattern: " + dateFormat, e);
       }
     }
 
     @Override
-    protected String fill(String pattern, long timeMillis, int logLevel, String tag, String message) {
-      return pattern.replace(wrappedParameter, threadLocalDateFormat.get().format(new Date(timeMillis)));
+    protected void fill(StringBuilder sb, long timeMillis, int logLevel, String tag, String message) {
+      timestampFormatter.formatTo(timeMillis, sb);
     }
   }
 
   /**
-   * Fill the original pattern string with level name.
+   * Fill the flattened log with level name.
    */
   static class LevelFiller extends ParameterFiller {
 
@@ -297,17 +373,17 @@ public class PatternFlattener implements Flattener, Flattener2 {
     }
 
     @Override
-    protected String fill(String pattern, long timeMillis, int logLevel, String tag, String message) {
+    protected void fill(StringBuilder sb, long timeMillis, int logLevel, String tag, String message) {
       if (useLongName) {
-        return pattern.replace(wrappedParameter, LogLevel.getLevelName(logLevel));
+        sb.append(LogLevel.getLevelName(logLevel));
       } else {
-        return pattern.replace(wrappedParameter, LogLevel.getShortLevelName(logLevel));
+        sb.append(LogLevel.getShortLevelName(logLevel));
       }
     }
   }
 
   /**
-   * Fill the original pattern string with tag.
+   * Fill the flattened log with tag.
    */
   static class TagFiller extends ParameterFiller {
 
@@ -316,13 +392,13 @@ public class PatternFlattener implements Flattener, Flattener2 {
     }
 
     @Override
-    protected String fill(String pattern, long timeMillis, int logLevel, String tag, String message) {
-      return pattern.replace(wrappedParameter, tag);
+    protected void fill(StringBuilder sb, long timeMillis, int logLevel, String tag, String message) {
+      sb.append(tag);
     }
   }
 
   /**
-   * Fill the original pattern string with message.
+   * Fill the flattened log with message.
    */
   static class MessageFiller extends ParameterFiller {
 
@@ -331,13 +407,13 @@ public class PatternFlattener implements Flattener, Flattener2 {
     }
 
     @Override
-    protected String fill(String pattern, long timeMillis, int logLevel, String tag, String message) {
-      return pattern.replace(wrappedParameter, message);
+    protected void fill(StringBuilder sb, long timeMillis, int logLevel, String tag, String message) {
+      sb.append(message);
     }
   }
 
   /**
-   * Fill the original pattern string with the value of parameter.
+   * Fill the flattened log with the value of parameter.
    */
   abstract static class ParameterFiller {
 
@@ -358,15 +434,14 @@ public class PatternFlattener implements Flattener, Flattener2 {
     }
 
     /**
-     * Fill the original pattern string with the value of parameter.
+     * Append the value of parameter to the flattening log.
      *
-     * @param pattern    the original pattern
+     * @param sb         the flattening log
      * @param timeMillis the time milliseconds of log
      * @param logLevel   the log level of flattening log
      * @param tag        the tag of flattening log
      * @param message    the message of the flattening log
-     * @return the filled pattern string
      */
-    protected abstract String fill(String pattern, long timeMillis, int logLevel, String tag, String message);
+    protected abstract void fill(StringBuilder sb, long timeMillis, int logLevel, String tag, String message);
   }
 }
@@ -27,35 +27,128 @@ import com.cl.zlog.internal.SystemCompat
  * ╟────────────────────────────────────────────────────────────────────────────
  * ║String segment 3
  * ╚════════════════════════════════════════════════════════════════════════════
+ *
+ * Each segment is walked only once, the borders and line prefixes are written straight into one
+ * pre-sized buffer.
+ *
+ * @param wrapWidth the max length of each line, not including the vertical border, longer lines
+ * are hard wrapped, [NO_WRAP] by default, since 2.1.0
  */
-class DefaultBorderFormatter : BorderFormatter {
+class DefaultBorderFormatter @JvmOverloads constructor(
+    private val wrapWidth: Int = NO_WRAP
+) : BorderFormatter {
+
+    init {
+        require(wrapWidth > 0) { "wrapWidth must be positive" }
+    }
 
     override fun format(data: Array<String>): String {
         if (data.isEmpty()) {
             return ""
         }
 
-        val nonNullSegments = data.filterNotNull()
-        if (nonNullSegments.isEmpty()) {
+        var count = 0
+        var length = 0
+        for (segment in data) {
+            @Suppress("SENSELESS_COMPARISON")
+            if (segment != null) {
+                count++
+                length += segment.length
+            }
+        }
+        if (count == 0) {
             return ""
         }
 
-        val msgBuilder = StringBuilder()
-        msgBuilder.append(TOP_HORIZONTAL_BORDER).append(SystemCompat.lineSeparator)
-        
-        for (i in nonNullSegments.indices) {
-            msgBuilder.append(appendVerticalBorder(nonNullSegments[i]))
-            if (i != nonNullSegments.size - 1) {
-                msgBuilder.append(SystemCompat.lineSeparator).append(DIVIDER_HORIZONTAL_BORDER)
-                    .append(SystemCompat.lineSeparator)
-            } else {
-                msgBuilder.append(SystemCompat.lineSeparator).append(BOTTOM_HORIZONTAL_BORDER)
+        val sb = StringBuilder(estimateCapacity(count, length))
+        var first = true
+        for (segment in data) {
+            @Suppress("SENSELESS_COMPARISON")
+            if (segment != null) {
+                appendSegment(sb, segment, first)
+                first = false
+            }
+        }
+        sb.append(SystemCompat.lineSeparator).append(BOTTOM_HORIZONTAL_BORDER)
+        return sb.toString()
+    }
+
+    /**
+     * Format the segments of a log without putting them into an array, the absent segments are
+     * skipped.
+     */
+    internal fun format(threadInfo: String?, stackTraceInfo: String?, msg: String): String {
+        val count = 1 + (if (threadInfo != null) 1 else 0) + (if (stackTraceInfo != null) 1 else 0)
+        val length = (threadInfo?.length ?: 0) + (stackTraceInfo?.length ?: 0) + msg.length
+        val sb = StringBuilder(estimateCapacity(count, length))
+        if (threadInfo != null) {
+            appendSegment(sb, threadInfo, true)
+        }
+        if (stackTraceInfo != null) {
+            appendSegment(sb, stackTraceInfo, threadInfo == null)
+        }
+        appendSegment(sb, msg, threadInfo == null && stackTraceInfo == null)
+        sb.append(SystemCompat.lineSeparator).append(BOTTOM_HORIZONTAL_BORDER)
+        return sb.toString()
+    }
+
+    private fun estimateCapacity(count: Int, length: Int): Int {
+        // The borders, and roughly a line prefix for every 32 chars.
+        return (count + 1) * (TOP_HORIZONTAL_BORDER.length + 2) + length + (length shr 5) + 16
+    }
+
+    /**
+     * Append the top or divider border, and then each line of the segment, prefixed with
+     * [VERTICAL_BORDER_CHAR].
+     */
+    private fun appendSegment(sb: StringBuilder, segment: String, first: Boolean) {
+        val separator = SystemCompat.lineSeparator
+        if (first) {
+            sb.append(TOP_HORIZONTAL_BORDER)
+        } else {
+            sb.append(separator).append(DIVIDER_HORIZONTAL_BORDER)
+        }
+        var lineStart = 0
+        while (true) {
+            var lineEnd = segment.indexOf(separator, lineStart)
+            val last = lineEnd < 0
+            if (last) {
+                lineEnd = segment.length
             }
+            appendLine(sb, segment, lineStart, lineEnd)
+            if (last) {
+                return
+            }
+            lineStart = lineEnd + separator.length
         }
-        return msgBuilder.toString()
+    }
+
+    private fun appendLine(sb: StringBuilder, segment: String, start: Int, end: Int) {
+        var lineStart = start
+        do {
+            var lineEnd = end
+            if (lineEnd - lineStart > wrapWidth) {
+                lineEnd = lineStart + wrapWidth
+                if (Character.isHighSurrogate(segment[lineEnd - 1]) && lineEnd - 1 > lineStart) {
+                    // Don't split a surrogate pair.
+                    lineEnd--
+                }
+            }
+            sb.append(SystemCompat.lineSeparator).append(VERTICAL_BORDER_CHAR)
+                .append(segment, lineStart, lineEnd)
+            lineStart = lineEnd
+        } while (lineStart < end)
     }
 
     companion object {
+
+        /**
+         * Never wrap the lines.
+         *
+         * @since 2.1.0
+         */
+        const val NO_WRAP = Int.MAX_VALUE
+
         private const val VERTICAL_BORDER_CHAR = '║'
 
         // Length: 100.
@@ -72,24 +165,5 @@ class DefaultBorderFormatter : BorderFormatter {
         private const val BOTTOM_HORIZONTAL_BORDER =
             "╚═════════════════════════════════════════════════" +
                     "══════════════════════════════════════════════════"
-
-        /**
-         * Add [VERTICAL_BORDER_CHAR] to each line of msg.
-         *
-         * @param msg the message to add border
-         * @return the message with [VERTICAL_BORDER_CHAR] in the start of each line
-         */
-        private fun appendVerticalBorder(msg: String): String {
-            val borderedMsgBuilder = StringBuilder(msg.length + 10)
-            val lines = msg.split(SystemCompat.lineSeparator)
-            for (i in lines.indices) {
-                if (i != 0) {
-                    borderedMsgBuilder.append(SystemCompat.lineSeparator)
-                }
-                val line = lines[i]
-                borderedMsgBuilder.append(VERTICAL_BORDER_CHAR).append(line)
-            }
-            return borderedMsgBuilder.toString()
-        }
     }
-}
\ No newline at end of file
+}
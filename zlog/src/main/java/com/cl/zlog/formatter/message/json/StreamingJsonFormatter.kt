@@ -0,0 +1,183 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.formatter.message.json
+
+import com.cl.zlog.internal.Platform
+
+/**
+ * Format the JSON by re-indenting it in a single pass over the characters, without parsing it into
+ * objects, so formatting a large JSON only costs a buffer of the output size.
+ *
+ * The keys are kept in their original order and the values are copied as they are. The JSON is
+ * not fully validated, only a JSON with unbalanced brackets or an unterminated string is treated
+ * as invalid, and returned as it is.
+ *
+ * @param indent    the spaces to indent each level with
+ * @param maxLength the max length of the formatted JSON, the exceeding part is cut and replaced by
+ * a truncation marker, [NO_LIMIT] by default, formatting stops once the limit is reached
+ * @since 2.1.0
+ */
+class StreamingJsonFormatter @JvmOverloads constructor(
+    private val indent: Int = DEFAULT_INDENT,
+    private val maxLength: Int = NO_LIMIT
+) : JsonFormatter {
+
+    init {
+        require(indent >= 0) { "indent must not be negative" }
+        require(maxLength > 0) { "maxLength must be positive" }
+    }
+
+    override fun format(data: String): String {
+        var start = 0
+        var end = data.length
+        while (start < end && data[start].isWhitespace()) {
+            start++
+        }
+        while (end > start && data[end - 1].isWhitespace()) {
+            end--
+        }
+        if (start == end) {
+            Platform.get().warn("JSON empty.")
+            return ""
+        }
+        val first = data[start]
+        if (first != '{' && first != '[') {
+            Platform.get().warn("JSON should start with { or [")
+            return data
+        }
+
+        val sb = StringBuilder(minOf(end - start + (end - start shr 1), maxLength) + 16)
+        var depth = 0
+        var i = start
+        while (i < end) {
+            if (sb.length > maxLength) {
+                return truncate(sb, data)
+            }
+            val c = data[i]
+            when (c) {
+                '"' -> {
+                    val stringEnd = findStringEnd(data, i + 1, end)
+                    if (stringEnd < 0) {
+                        Platform.get().warn("JSON has an unterminated string")
+                        return data
+                    }
+                    if (stringEnd + 1 - i > maxLength - sb.length) {
+                        // Don't copy a huge string only to cut it.
+                        sb.append(data, i, i + maxLength - sb.length + 1)
+                        return truncate(sb, data)
+                    }
+                    sb.append(data, i, stringEnd + 1)
+                    i = stringEnd
+                }
+                '{', '[' -> {
+                    val next = skipWhitespace(data, i + 1, end)
+                    if (next < end && data[next] == (if (c == '{') '}' else ']')) {
+                        // Keep empty object or array in one line.
+                        sb.append(c).append(data[next])
+                        i = next
+                    } else {
+                        depth++
+                        sb.append(c)
+                        newLine(sb, depth)
+                    }
+                }
+                '}', ']' -> {
+                    depth--
+                    if (depth < 0) {
+                        Platform.get().warn("JSON has unbalanced brackets")
+                        return data
+                    }
+                    newLine(sb, depth)
+                    sb.append(c)
+                }
+                ',' -> {
+                    sb.append(c)
+                    newLine(sb, depth)
+                }
+                ':' -> sb.append(": ")
+                ' ', '\t', '\n', '\r' -> {
+                    // Drop the original whitespaces.
+                }
+                else -> sb.append(c)
+            }
+            i++
+            if (depth == 0) {
+                break
+            }
+        }
+        if (depth != 0 || skipWhitespace(data, i, end) != end) {
+            Platform.get().warn("JSON has unbalanced brackets")
+            return data
+        }
+        if (sb.length > maxLength) {
+            return truncate(sb, data)
+        }
+        return sb.toString()
+    }
+
+    private fun truncate(sb: StringBuilder, data: String): String {
+        sb.setLength(maxLength)
+        sb.append(TRUNCATION_MARKER_PREFIX).append(data.length).append(TRUNCATION_MARKER_SUFFIX)
+        return sb.toString()
+    }
+
+    private fun newLine(sb: StringBuilder, depth: Int) {
+        sb.append('\n')
+        for (i in 0 until depth * indent) {
+            sb.append(' ')
+        }
+    }
+
+    companion object {
+
+        /**
+         * No limit on the length of formatted JSON.
+         */
+        const val NO_LIMIT = Int.MAX_VALUE
+
+        private const val DEFAULT_INDENT = 4
+
+        private const val TRUNCATION_MARKER_PREFIX = "\n...(truncated, the original JSON has "
+
+        private const val TRUNCATION_MARKER_SUFFIX = " chars)"
+
+        /**
+         * Find the closing quote of a string.
+         *
+         * @return the index of closing quote, or -1 if the string is not terminated
+         */
+        private fun findStringEnd(data: String, from: Int, end: Int): Int {
+            var i = from
+            while (i < end) {
+                when (data[i]) {
+                    '\\' -> i++
+                    '"' -> return i
+                }
+                i++
+            }
+            return -1
+        }
+
+        private fun skipWhitespace(data: String, from: Int, end: Int): Int {
+            var i = from
+            while (i < end && data[i].isWhitespace()) {
+                i++
+            }
+            return i
+        }
+    }
+}
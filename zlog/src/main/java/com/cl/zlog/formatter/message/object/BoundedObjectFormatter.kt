@@ -0,0 +1,355 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.formatter.message.`object`
+
+import com.cl.zlog.internal.util.ClassCache
+
+/**
+ * An object formatter for arrays, primitive arrays, [Collection]s and [Map]s, which renders them
+ * in the same layout as [java.util.Arrays.deepToString] and [AbstractCollection.toString], but
+ * within limits, so the work is bounded no matter how large the object is.
+ *
+ * - At most [Builder.maxElements] elements of each array, collection or map are printed, the
+ *   rest are replaced by "…(+N more)".
+ * - Containers nested deeper than [Builder.maxDepth] are replaced by "[…(+N more)]", or
+ *   "{…(+N more)}" for maps.
+ * - The output stops at about [Builder.maxLength] chars, the remaining elements of each open
+ *   container are counted in "…(+N more)" as well.
+ *
+ * Other objects are formatted by [Any.toString], so are the collections and maps whose class
+ * overrides [Any.toString] outside the `java` and `kotlin` packages, the text is cut at
+ * [Builder.maxLength] chars, but the work of their own [Any.toString] is not bounded.
+ *
+ * A default instance is registered for all [SUPPORTED_TYPES], to use other limits, register
+ * another instance for them, e.g.
+ * ```
+ * BoundedObjectFormatter formatter = new BoundedObjectFormatter.Builder().maxElements(20).build();
+ * for (Class type : BoundedObjectFormatter.SUPPORTED_TYPES) {
+ *   builder.addObjectFormatter(type, formatter);
+ * }
+ * ```
+ *
+ * @since 2.1.0
+ */
+class BoundedObjectFormatter internal constructor(builder: Builder) : ObjectFormatter<Any> {
+
+    private val maxElements = builder.maxElements
+
+    private val maxLength = builder.maxLength
+
+    private val maxDepth = builder.maxDepth
+
+    /**
+     * Append the elements of a container with [appendValue].
+     */
+    private val appendElementValue: (StringBuilder, Any?, Int) -> Unit = { sb, element, depth ->
+        appendValue(sb, element, depth)
+    }
+
+    override fun format(data: Any): String {
+        val sb = StringBuilder(INITIAL_CAPACITY)
+        appendValue(sb, data, 0)
+        return sb.toString()
+    }
+
+    /**
+     * Append a value, containers are expanded if not deeper than [maxDepth], unless they have
+     * their own [Any.toString].
+     */
+    private fun appendValue(sb: StringBuilder, value: Any?, depth: Int) {
+        if (value != null && HAS_CUSTOM_TO_STRING.get(value.javaClass)
+            || !appendContainer(sb, value, depth, appendElementValue)
+        ) {
+            if (value == null) {
+                sb.append("null")
+            } else {
+                appendText(sb, value.toString())
+            }
+        }
+    }
+
+    /**
+     * Append the value within limits if it's an array, a collection or a map.
+     *
+     * @param depth         the depth of the value
+     * @param appendElement append an element of object array, collection or map, with the
+     *                      element and its depth, primitive elements are appended directly
+     * @return true if the value is appended, false if it's not a container, nothing appended
+     */
+    internal fun appendContainer(
+        sb: StringBuilder,
+        value: Any?,
+        depth: Int,
+        appendElement: (StringBuilder, Any?, Int) -> Unit
+    ): Boolean {
+        when (value) {
+            is Array<*> -> appendElements(sb, value.size, depth, '[', ']') { i ->
+                appendElement(sb, value[i], depth + 1)
+            }
+            is IntArray -> appendElements(sb, value.size, depth, '[', ']') { i ->
+                sb.append(value[i])
+            }
+            is LongArray -> appendElements(sb, value.size, depth, '[', ']') { i ->
+                sb.append(value[i])
+            }
+            is ByteArray -> appendElements(sb, value.size, depth, '[', ']') { i ->
+                sb.append(value[i].toInt())
+            }
+            is ShortArray -> appendElements(sb, value.size, depth, '[', ']') { i ->
+                sb.append(value[i].toInt())
+            }
+            is CharArray -> appendElements(sb, value.size, depth, '[', ']') { i ->
+                sb.append(value[i])
+            }
+            is BooleanArray -> appendElements(sb, value.size, depth, '[', ']') { i ->
+                sb.append(value[i])
+            }
+            is FloatArray -> appendElements(sb, value.size, depth, '[', ']') { i ->
+                sb.append(value[i])
+            }
+            is DoubleArray -> appendElements(sb, value.size, depth, '[', ']') { i ->
+                sb.append(value[i])
+            }
+            is Collection<*> -> {
+                appendIterated(sb, value.iterator(), value.size, depth, '[', ']') {
+                    if (it === value) {
+                        sb.append("(this Collection)")
+                    } else {
+                        appendElement(sb, it, depth + 1)
+                    }
+                }
+            }
+            is Map<*, *> -> {
+                appendIterated(sb, value.entries.iterator(), value.size, depth, '{', '}') {
+                    appendMapValue(sb, value, it.key, depth, appendElement)
+                    sb.append('=')
+                    appendMapValue(sb, value, it.value, depth, appendElement)
+                }
+            }
+            else -> return false
+        }
+        return true
+    }
+
+    private inline fun appendMapValue(
+        sb: StringBuilder,
+        map: Map<*, *>,
+        value: Any?,
+        depth: Int,
+        appendElement: (StringBuilder, Any?, Int) -> Unit
+    ) {
+        if (value === map) {
+            sb.append("(this Map)")
+        } else {
+            appendElement(sb, value, depth + 1)
+        }
+    }
+
+    /**
+     * Append the elements of an array, stop if there are too many elements, or the output is too
+     * long.
+     *
+     * @param size          the number of elements
+     * @param appendElement append the element at the index, always called with increasing indexes
+     */
+    private inline fun appendElements(
+        sb: StringBuilder,
+        size: Int,
+        depth: Int,
+        open: Char,
+        close: Char,
+        appendElement: (Int) -> Unit
+    ) {
+        sb.append(open)
+        if (size > 0 && depth >= maxDepth) {
+            appendMore(sb, size)
+        } else {
+            for (i in 0 until size) {
+                if (i > 0) {
+                    sb.append(", ")
+                }
+                if (i == maxElements || sb.length >= maxLength) {
+                    appendMore(sb, size - i)
+                    break
+                }
+                appendElement(i)
+            }
+        }
+        sb.append(close)
+    }
+
+    /**
+     * Append the elements of a collection or map, stop if there are too many elements, or the
+     * output is too long.
+     *
+     * The elements are iterated until [Iterator.hasNext] returns false, the size is only used to
+     * count the omitted elements, as a concurrent collection may shrink or grow while iterating.
+     *
+     * @param size          the number of elements when starting
+     * @param appendElement append the element
+     */
+    private inline fun <E> appendIterated(
+        sb: StringBuilder,
+        iterator: Iterator<E>,
+        size: Int,
+        depth: Int,
+        open: Char,
+        close: Char,
+        appendElement: (E) -> Unit
+    ) {
+        sb.append(open)
+        if (depth >= maxDepth) {
+            if (iterator.hasNext()) {
+                appendMore(sb, maxOf(size, 1))
+            }
+        } else {
+            var count = 0
+            while (iterator.hasNext()) {
+                if (count > 0) {
+                    sb.append(", ")
+                }
+                if (count == maxElements || sb.length >= maxLength) {
+                    appendMore(sb, maxOf(size - count, 1))
+                    break
+                }
+                appendElement(iterator.next())
+                count++
+            }
+        }
+        sb.append(close)
+    }
+
+    private fun appendMore(sb: StringBuilder, count: Int) {
+        sb.append("…(+").append(count).append(" more)")
+    }
+
+    /**
+     * Append the text, cut if exceeds the remaining length.
+     */
+    private fun appendText(sb: StringBuilder, text: String) {
+        val remaining = maxLength - sb.length
+        if (text.length <= remaining) {
+            sb.append(text)
+        } else {
+            var end = maxOf(remaining, 0)
+            if (end > 0 && Character.isHighSurrogate(text[end - 1])) {
+                end--
+            }
+            sb.append(text, 0, end).append('…')
+        }
+    }
+
+    /**
+     * Builder for [BoundedObjectFormatter].
+     */
+    class Builder {
+
+        internal var maxElements = DEFAULT_MAX_ELEMENTS
+
+        internal var maxLength = DEFAULT_MAX_LENGTH
+
+        internal var maxDepth = DEFAULT_MAX_DEPTH
+
+        /**
+         * Set the max number of elements printed for each array, collection or map, default
+         * [DEFAULT_MAX_ELEMENTS].
+         *
+         * @param maxElements the max number of elements
+         * @return the builder
+         */
+        fun maxElements(maxElements: Int): Builder {
+            require(maxElements > 0) { "maxElements must be positive" }
+            this.maxElements = maxElements
+            return this
+        }
+
+        /**
+         * Set the max length of the formatted string, default [DEFAULT_MAX_LENGTH]. The markers
+         * of the omitted elements and the closing brackets may exceed it a little.
+         *
+         * @param maxLength the max length
+         * @return the builder
+         */
+        fun maxLength(maxLength: Int): Builder {
+            require(maxLength > 0) { "maxLength must be positive" }
+            this.maxLength = maxLength
+            return this
+        }
+
+        /**
+         * Set the max depth of nested containers to expand, default [DEFAULT_MAX_DEPTH]. The
+         * top level object is at depth 0.
+         *
+         * @param maxDepth the max depth
+         * @return the builder
+         */
+        fun maxDepth(maxDepth: Int): Builder {
+            require(maxDepth >= 0) { "maxDepth must not be negative" }
+            this.maxDepth = maxDepth
+            return this
+        }
+
+        fun build(): BoundedObjectFormatter {
+            return BoundedObjectFormatter(this)
+        }
+    }
+
+    companion object {
+
+        const val DEFAULT_MAX_ELEMENTS = 100
+
+        const val DEFAULT_MAX_LENGTH = 8 * 1024
+
+        const val DEFAULT_MAX_DEPTH = 4
+
+        private const val INITIAL_CAPACITY = 256
+
+        /**
+         * Whether a collection or map class overrides [Any.toString] outside the `java` and
+         * `kotlin` packages, always false for other classes.
+         */
+        private val HAS_CUSTOM_TO_STRING = ClassCache { clazz ->
+            if (Collection::class.java.isAssignableFrom(clazz)
+                || Map::class.java.isAssignableFrom(clazz)
+            ) {
+                val name = clazz.getMethod("toString").declaringClass.name
+                !name.startsWith("java.") && !name.startsWith("kotlin.")
+            } else {
+                false
+            }
+        }
+
+        /**
+         * The types supported by [BoundedObjectFormatter], an object array formatter also
+         * applies to arrays of any reference type.
+         */
+        @JvmField
+        val SUPPORTED_TYPES: Array<Class<*>> = arrayOf(
+            Array<Any>::class.java,
+            IntArray::class.java,
+            LongArray::class.java,
+            ByteArray::class.java,
+            ShortArray::class.java,
+            CharArray::class.java,
+            BooleanArray::class.java,
+            FloatArray::class.java,
+            DoubleArray::class.java,
+            Collection::class.java,
+            Map::class.java
+        )
+    }
+}
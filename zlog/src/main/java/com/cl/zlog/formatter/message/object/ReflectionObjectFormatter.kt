@@ -0,0 +1,311 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.formatter.message.`object`
+
+import java.lang.reflect.Field
+import java.lang.reflect.Modifier
+import java.util.Collections
+import java.util.IdentityHashMap
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * An object formatter which dumps the fields of an object, in the format of
+ * "ClassName{field1=value1, field2=value2}", useful for the objects whose [Any.toString] is
+ * missing or too expensive.
+ *
+ * - The fields of each class are looked up and made accessible only once, and then cached, so no
+ *   reflection lookup happens when formatting.
+ * - Static, transient and synthetic fields are skipped, as well as the fields annotated with any
+ *   of [Builder.skipFieldsAnnotatedWith].
+ * - The fields of the superclasses are dumped first, up to the first class of the JDK, Android
+ *   or Kotlin libraries, whose fields are never dumped.
+ * - Field values of other objects are dumped recursively, until [Builder.maxDepth], deeper objects
+ *   are replaced by "ClassName{…}". An object referencing one of its enclosing objects is
+ *   replaced by "(cycle ClassName)".
+ * - Strings, numbers, enums and the objects of the JDK, Android or Kotlin libraries are formatted
+ *   by [Any.toString].
+ * - Arrays, collections and maps are expanded as a [BoundedObjectFormatter] does, at most
+ *   [BoundedObjectFormatter.DEFAULT_MAX_ELEMENTS] elements each, and their elements are dumped
+ *   the same way as fields, counting in the depth and the cycle detection.
+ * - The output stops at about [Builder.maxLength] chars.
+ *
+ * Not registered by default, register it for the classes to dump, e.g.
+ * ```
+ * ZLog.addObjectFormatter(User.class, new ReflectionObjectFormatter.Builder().build())
+ * ```
+ *
+ * @since 2.1.0
+ */
+class ReflectionObjectFormatter internal constructor(builder: Builder) : ObjectFormatter<Any> {
+
+    private val maxDepth = builder.maxDepth
+
+    private val maxLength = builder.maxLength
+
+    private val skippedAnnotations = builder.skippedAnnotations.toTypedArray()
+
+    /**
+     * Expands the arrays, collections and maps, their elements are appended by this formatter. A
+     * container at [maxDepth] is still expanded, so its simple elements are shown, the objects in
+     * it are collapsed.
+     */
+    private val containerFormatter = BoundedObjectFormatter.Builder()
+        .maxLength(builder.maxLength)
+        .maxDepth(builder.maxDepth + 1)
+        .build()
+
+    private val classInfos = ConcurrentHashMap<Class<*>, ClassInfo>()
+
+    override fun format(data: Any): String {
+        // Taken out while in use, in case a toString() logs something else with this formatter.
+        val sb = REUSABLE_BUILDER.get()?.also { REUSABLE_BUILDER.set(null) } ?: StringBuilder()
+        sb.setLength(0)
+        appendValue(sb, data, 0, Collections.newSetFromMap(IdentityHashMap()))
+        val formatted = sb.toString()
+        if (sb.capacity() <= MAX_REUSABLE_BUILDER_CAPACITY) {
+            // Don't keep a huge builder for an occasional huge object.
+            REUSABLE_BUILDER.set(sb)
+        }
+        return formatted
+    }
+
+    /**
+     * Append a value.
+     *
+     * @param enclosing the objects being dumped, which enclose the value
+     */
+    private fun appendValue(
+        sb: StringBuilder,
+        value: Any?,
+        depth: Int,
+        enclosing: MutableSet<Any>
+    ) {
+        when {
+            value == null -> sb.append("null")
+            containerFormatter.appendContainer(sb, value, depth) { _, element, elementDepth ->
+                appendValue(sb, element, elementDepth, enclosing)
+            } -> return
+            value is Enum<*> || isLibraryClass(value.javaClass) ->
+                appendText(sb, value.toString())
+            else -> appendFields(sb, value, depth, enclosing)
+        }
+    }
+
+    private fun appendFields(
+        sb: StringBuilder,
+        value: Any,
+        depth: Int,
+        enclosing: MutableSet<Any>
+    ) {
+        val classInfo = getClassInfo(value.javaClass)
+        if (value in enclosing) {
+            sb.append("(cycle ").append(classInfo.name).append(')')
+            return
+        }
+        sb.append(classInfo.name).append('{')
+        val fields = classInfo.fields
+        if (fields.isNotEmpty() && depth >= maxDepth) {
+            sb.append('…')
+        } else {
+            enclosing.add(value)
+            for (i in fields.indices) {
+                if (i > 0) {
+                    sb.append(", ")
+                }
+                if (sb.length >= maxLength) {
+                    sb.append("…(+").append(fields.size - i).append(" more)")
+                    break
+                }
+                val field = fields[i]
+                sb.append(field.name).append('=')
+                val fieldValue = try {
+                    field.get(value)
+                } catch (e: Exception) {
+                    sb.append('?')
+                    continue
+                }
+                appendValue(sb, fieldValue, depth + 1, enclosing)
+            }
+            enclosing.remove(value)
+        }
+        sb.append('}')
+    }
+
+    /**
+     * Append the text, cut if exceeds the remaining length.
+     */
+    private fun appendText(sb: StringBuilder, text: String) {
+        val remaining = maxLength - sb.length
+        if (text.length <= remaining) {
+            sb.append(text)
+        } else {
+            var end = maxOf(remaining, 0)
+            if (end > 0 && Character.isHighSurrogate(text[end - 1])) {
+                end--
+            }
+            sb.append(text, 0, end).append('…')
+        }
+    }
+
+    private fun getClassInfo(clazz: Class<*>): ClassInfo {
+        var classInfo = classInfos[clazz]
+        if (classInfo == null) {
+            classInfo = ClassInfo(simpleNameOf(clazz), collectFields(clazz))
+            classInfos[clazz] = classInfo
+        }
+        return classInfo
+    }
+
+    /**
+     * Collect the fields to dump, superclass fields first, and make them accessible.
+     */
+    private fun collectFields(clazz: Class<*>): Array<Field> {
+        val classes = ArrayList<Class<*>>()
+        var c: Class<*>? = clazz
+        while (c != null && !isLibraryClass(c)) {
+            classes.add(c)
+            c = c.superclass
+        }
+        val fields = ArrayList<Field>()
+        for (i in classes.indices.reversed()) {
+            for (field in classes[i].declaredFields) {
+                if (isSkipped(field)) {
+                    continue
+                }
+                try {
+                    field.isAccessible = true
+                } catch (e: Exception) {
+                    // Not accessible, e.g. denied by a security manager.
+                    continue
+                }
+                fields.add(field)
+            }
+        }
+        return fields.toTypedArray()
+    }
+
+    private fun isSkipped(field: Field): Boolean {
+        val modifiers = field.modifiers
+        if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic) {
+            return true
+        }
+        for (annotation in skippedAnnotations) {
+            if (field.isAnnotationPresent(annotation)) {
+                return true
+            }
+        }
+        return false
+    }
+
+    /**
+     * The cached information of a class.
+     *
+     * @property name   the simple name of the class
+     * @property fields the fields to dump, already accessible
+     */
+    private class ClassInfo(val name: String, val fields: Array<Field>)
+
+    /**
+     * Builder for [ReflectionObjectFormatter].
+     */
+    class Builder {
+
+        internal var maxDepth = DEFAULT_MAX_DEPTH
+
+        internal var maxLength = DEFAULT_MAX_LENGTH
+
+        internal val skippedAnnotations = ArrayList<Class<out Annotation>>()
+
+        /**
+         * Set the max depth of nested objects to dump, default [DEFAULT_MAX_DEPTH]. The top
+         * level object is at depth 0, so 0 means only its class name is printed.
+         *
+         * @param maxDepth the max depth
+         * @return the builder
+         */
+        fun maxDepth(maxDepth: Int): Builder {
+            require(maxDepth >= 0) { "maxDepth must not be negative" }
+            this.maxDepth = maxDepth
+            return this
+        }
+
+        /**
+         * Set the max length of the formatted string, default [DEFAULT_MAX_LENGTH]. The markers
+         * of the omitted fields and the closing brackets may exceed it a little.
+         *
+         * @param maxLength the max length
+         * @return the builder
+         */
+        fun maxLength(maxLength: Int): Builder {
+            require(maxLength > 0) { "maxLength must be positive" }
+            this.maxLength = maxLength
+            return this
+        }
+
+        /**
+         * Skip the fields annotated with any of the annotations, e.g. the fields holding
+         * sensitive data. The annotations must be retained at runtime.
+         *
+         * @param annotations the annotation classes
+         * @return the builder
+         */
+        fun skipFieldsAnnotatedWith(vararg annotations: Class<out Annotation>): Builder {
+            skippedAnnotations.addAll(annotations)
+            return this
+        }
+
+        fun build(): ReflectionObjectFormatter {
+            return ReflectionObjectFormatter(this)
+        }
+    }
+
+    companion object {
+
+        const val DEFAULT_MAX_DEPTH = 2
+
+        const val DEFAULT_MAX_LENGTH = 8 * 1024
+
+        private const val MAX_REUSABLE_BUILDER_CAPACITY = 8 * 1024
+
+        private val REUSABLE_BUILDER = ThreadLocal<StringBuilder>()
+
+        /**
+         * The package prefixes of the JDK, Android and Kotlin libraries.
+         */
+        private val LIBRARY_PACKAGES = arrayOf(
+            "java.", "javax.", "jdk.", "sun.", "android.", "androidx.", "dalvik.", "kotlin."
+        )
+
+        private fun isLibraryClass(clazz: Class<*>): Boolean {
+            if (clazz.isPrimitive) {
+                return true
+            }
+            val name = clazz.name
+            for (prefix in LIBRARY_PACKAGES) {
+                if (name.startsWith(prefix)) {
+                    return true
+                }
+            }
+            return false
+        }
+
+        private fun simpleNameOf(clazz: Class<*>): String {
+            // Anonymous classes have no simple name.
+            return clazz.simpleName.ifEmpty { clazz.name.substringAfterLast('.') }
+        }
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.formatter.message.throwable
+
+import com.cl.zlog.internal.SystemCompat
+import java.net.UnknownHostException
+
+/**
+ * A throwable formatter which renders the stack trace in the same layout as
+ * [Throwable.printStackTrace], but straight into a [StringBuilder] and within limits, so the work
+ * is bounded no matter how deep the stack trace or the cause chain is.
+ *
+ * - At most [Builder.maxFrames] frames of each throwable are printed.
+ * - At most [Builder.maxCauseDepth] throwables in the cause chain are printed.
+ * - The output is cut at [Builder.maxLength] chars.
+ * - The frames a cause shares with its enclosing throwable are elided, as
+ *   [Throwable.printStackTrace] does.
+ * - The frames in [Builder.excludePackages] are collapsed into a single line, except the top
+ *   frame, which is where the throwable is thrown.
+ *
+ * Like [DefaultThrowableFormatter], nothing is printed for an [UnknownHostException], to reduce
+ * the log spew when the network is unavailable. Suppressed throwables are not printed.
+ *
+ * @since 2.1.0
+ */
+class BoundedThrowableFormatter internal constructor(builder: Builder) : ThrowableFormatter {
+
+    private val maxFrames = builder.maxFrames
+
+    private val maxCauseDepth = builder.maxCauseDepth
+
+    private val maxLength = builder.maxLength
+
+    private val excludedPackages = builder.excludedPackages.toTypedArray()
+
+    override fun format(tr: Throwable): String {
+        val separator = SystemCompat.lineSeparator
+        val sb = StringBuilder(INITIAL_CAPACITY)
+        var t: Throwable? = tr
+        var enclosingFrames: Array<StackTraceElement>? = null
+        var depth = 0
+        while (t != null) {
+            if (t is UnknownHostException) {
+                return ""
+            }
+            if (depth == maxCauseDepth) {
+                sb.append(separator).append("\t... more causes omitted")
+                break
+            }
+            if (depth > 0) {
+                sb.append(separator).append("Caused by: ")
+            }
+            sb.append(t.toString())
+            val frames = t.stackTrace
+            appendFrames(sb, frames, enclosingFrames)
+            if (sb.length > maxLength) {
+                break
+            }
+            enclosingFrames = frames
+            t = t.cause
+            depth++
+        }
+        if (sb.length > maxLength) {
+            sb.setLength(maxLength)
+            sb.append(separator).append("\t... truncated")
+        }
+        return sb.toString()
+    }
+
+    private fun appendFrames(
+        sb: StringBuilder,
+        frames: Array<StackTraceElement>,
+        enclosingFrames: Array<StackTraceElement>?
+    ) {
+        val separator = SystemCompat.lineSeparator
+
+        // The frames in common with the enclosing throwable, counted from the bottom.
+        var commonFrames = 0
+        if (enclosingFrames != null) {
+            var i = frames.size - 1
+            var j = enclosingFrames.size - 1
+            while (i >= 0 && j >= 0 && frames[i] == enclosingFrames[j]) {
+                commonFrames++
+                i--
+                j--
+            }
+        }
+
+        val uniqueFrames = frames.size - commonFrames
+        var printedFrames = 0
+        var excludedFrames = 0
+        for (i in 0 until uniqueFrames) {
+            val frame = frames[i]
+            if (i > 0 && isExcluded(frame.className)) {
+                excludedFrames++
+                continue
+            }
+            if (excludedFrames > 0) {
+                sb.append(separator).append("\t... ").append(excludedFrames).append(" excluded")
+                excludedFrames = 0
+            }
+            if (printedFrames == maxFrames || sb.length > maxLength) {
+                sb.append(separator).append("\t... ").append(uniqueFrames - i).append(" more frames")
+                break
+            }
+            appendFrame(sb, frame)
+            printedFrames++
+        }
+        if (excludedFrames > 0) {
+            sb.append(separator).append("\t... ").append(excludedFrames).append(" excluded")
+        }
+        if (commonFrames > 0) {
+            sb.append(separator).append("\t... ").append(commonFrames).append(" more")
+        }
+    }
+
+    private fun appendFrame(sb: StringBuilder, frame: StackTraceElement) {
+        sb.append(SystemCompat.lineSeparator).append("\tat ")
+            .append(frame.className).append('.').append(frame.methodName)
+        val fileName = frame.fileName
+        when {
+            frame.isNativeMethod -> sb.append("(Native Method)")
+            fileName == null -> sb.append("(Unknown Source)")
+            frame.lineNumber >= 0 -> sb.append('(').append(fileName).append(':')
+                .append(frame.lineNumber).append(')')
+            else -> sb.append('(').append(fileName).append(')')
+        }
+    }
+
+    private fun isExcluded(className: String): Boolean {
+        for (excludedPackage in excludedPackages) {
+            if (className.startsWith(excludedPackage)) {
+                return true
+            }
+        }
+        return false
+    }
+
+    /**
+     * Builder for [BoundedThrowableFormatter].
+     */
+    class Builder {
+
+        internal var maxFrames = DEFAULT_MAX_FRAMES
+
+        internal var maxCauseDepth = DEFAULT_MAX_CAUSE_DEPTH
+
+        internal var maxLength = DEFAULT_MAX_LENGTH
+
+        internal val excludedPackages = ArrayList<String>()
+
+        /**
+         * Set the max number of frames printed for each throwable, default [DEFAULT_MAX_FRAMES].
+         *
+         * @param maxFrames the max number of frames
+         * @return the builder
+         */
+        fun maxFrames(maxFrames: Int): Builder {
+            require(maxFrames > 0) { "maxFrames must be positive" }
+            this.maxFrames = maxFrames
+            return this
+        }
+
+        /**
+         * Set the max number of throwables printed in the cause chain, including the throwable
+         * itself, default [DEFAULT_MAX_CAUSE_DEPTH].
+         *
+         * @param maxCauseDepth the max number of throwables
+         * @return the builder
+         */
+        fun maxCauseDepth(maxCauseDepth: Int): Builder {
+            require(maxCauseDepth > 0) { "maxCauseDepth must be positive" }
+            this.maxCauseDepth = maxCauseDepth
+            return this
+        }
+
+        /**
+         * Set the max length of the formatted stack trace, default [DEFAULT_MAX_LENGTH].
+         *
+         * @param maxLength the max length
+         * @return the builder
+         */
+        fun maxLength(maxLength: Int): Builder {
+            require(maxLength > 0) { "maxLength must be positive" }
+            this.maxLength = maxLength
+            return this
+        }
+
+        /**
+         * Exclude the frames in the packages, the frames of a class whose name starts with any of
+         * the prefixes are collapsed into a single line.
+         *
+         * @param packagePrefixes the prefixes of package names, e.g. "android.os."
+         * @return the builder
+         */
+        fun excludePackages(vararg packagePrefixes: String): Builder {
+            excludedPackages.addAll(packagePrefixes)
+            return this
+        }
+
+        /**
+         * Exclude the frames in [FRAMEWORK_PACKAGES], the reflection, coroutine and Android
+         * framework packages.
+         *
+         * @return the builder
+         */
+        fun excludeFrameworkPackages(): Builder {
+            return excludePackages(*FRAMEWORK_PACKAGES)
+        }
+
+        fun build(): BoundedThrowableFormatter {
+            return BoundedThrowableFormatter(this)
+        }
+    }
+
+    companion object {
+
+        const val DEFAULT_MAX_FRAMES = 32
+
+        const val DEFAULT_MAX_CAUSE_DEPTH = 8
+
+        const val DEFAULT_MAX_LENGTH = 8 * 1024
+
+        /**
+         * The packages seldom interesting in a stack trace.
+         */
+        @JvmField
+        val FRAMEWORK_PACKAGES = arrayOf(
+            "java.lang.reflect.",
+            "jdk.internal.reflect.",
+            "sun.reflect.",
+            "kotlin.coroutines.",
+            "kotlinx.coroutines.",
+            "android.os.",
+            "android.app.ActivityThread",
+            "com.android.internal.os.",
+            "dalvik.system."
+        )
+
+        private const val INITIAL_CAPACITY = 512
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.formatter.message.throwable
+
+import com.cl.zlog.internal.SystemCompat
+import java.lang.ref.WeakReference
+
+/**
+ * A throwable formatter which prints the full stack trace of a throwable only once in a time
+ * window, the repeated throwables are printed as a short reference to it, e.g.
+ *
+ * ```
+ * #3 java.io.IOException: Connection reset
+ *     at ...
+ *
+ * java.io.IOException: Connection reset
+ *     ... same as #3, seen 2 times
+ * ```
+ *
+ * Throwables are deemed the same if they have the same fingerprint, computed from the classes and
+ * the top stack frames of the throwable and its causes, which is much cheaper than rendering the
+ * stack trace. The first line of a repeated throwable is still printed, so different messages are
+ * not lost.
+ *
+ * The throwables are remembered in a bounded LRU cache. When the window of a throwable expires,
+ * its full stack trace is rendered again, as a throwable with the same fingerprint may still
+ * differ in deeper frames and causes, the rendered stack trace is only reused if the very same
+ * throwable instance is logged again.
+ *
+ * @param windowMillis the time window in milliseconds, repeats within the window since the full
+ * stack trace is printed are printed as references
+ * @param maxEntries   the max number of throwables to remember
+ * @param frameCount   the number of top stack frames of each throwable used in the fingerprint
+ * @param delegate     the formatter to render the full stack trace
+ * @since 2.1.0
+ */
+class DedupThrowableFormatter @JvmOverloads constructor(
+    private val windowMillis: Long = DEFAULT_WINDOW_MILLIS,
+    private val maxEntries: Int = DEFAULT_MAX_ENTRIES,
+    private val frameCount: Int = DEFAULT_FRAME_COUNT,
+    private val delegate: ThrowableFormatter = DefaultThrowableFormatter()
+) : ThrowableFormatter {
+
+    private val entries = object : LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Long, Entry>?): Boolean {
+            return size > maxEntries
+        }
+    }
+
+    private var nextId = 1
+
+    init {
+        require(windowMillis > 0) { "windowMillis must be positive" }
+        require(maxEntries > 0) { "maxEntries must be positive" }
+        require(frameCount > 0) { "frameCount must be positive" }
+    }
+
+    override fun format(tr: Throwable): String {
+        val fingerprint = fingerprint(tr)
+        val now = System.currentTimeMillis()
+        val header = tr.toString()
+        var cachedTrace: String? = null
+        synchronized(entries) {
+            val entry = entries[fingerprint]
+            if (entry != null && entry.className == tr.javaClass.name) {
+                if (now - entry.windowStart < windowMillis) {
+                    entry.count++
+                    return header + SystemCompat.lineSeparator + "\t... same as #" + entry.id +
+                            ", seen " + entry.count + " times"
+                }
+                if (entry.throwable.get() === tr && entry.header == header) {
+                    cachedTrace = entry.trace
+                }
+            }
+        }
+
+        val trace = cachedTrace ?: delegate.format(tr)
+        if (trace.isEmpty()) {
+            // Nothing worth a reference, e.g. network unavailable.
+            return trace
+        }
+        val id: Int
+        synchronized(entries) {
+            var entry = entries[fingerprint]
+            if (entry == null || entry.className != tr.javaClass.name) {
+                entry = Entry(nextId++, tr.javaClass.name)
+                entries[fingerprint] = entry
+            }
+            // An existing entry keeps its id, so the earlier references are still valid.
+            id = entry.id
+            entry.throwable = WeakReference(tr)
+            entry.header = header
+            entry.trace = trace
+            entry.windowStart = now
+            entry.count = 1
+        }
+        return "#$id $trace"
+    }
+
+    /**
+     * Compute the fingerprint of a throwable from the classes and top stack frames of it and its
+     * causes.
+     */
+    private fun fingerprint(tr: Throwable): Long {
+        var hash = 1125899906842597L
+        var t: Throwable? = tr
+        var depth = 0
+        while (t != null && depth < MAX_CAUSE_DEPTH) {
+            hash = 31 * hash + t.javaClass.name.hashCode()
+            val frames = t.stackTrace
+            for (i in 0 until minOf(frameCount, frames.size)) {
+                val frame = frames[i]
+                hash = 31 * hash + frame.className.hashCode()
+                hash = 31 * hash + frame.methodName.hashCode()
+                hash = 31 * hash + frame.lineNumber
+            }
+            t = t.cause
+            depth++
+        }
+        return hash
+    }
+
+    private class Entry(val id: Int, val className: String) {
+        /**
+         * The throwable whose stack trace is rendered, weakly referenced not to keep it alive.
+         */
+        var throwable = WeakReference<Throwable>(null)
+        var header = ""
+        var trace = ""
+        var windowStart = 0L
+        var count = 0
+    }
+
+    companion object {
+        private const val DEFAULT_WINDOW_MILLIS = 60 * 1000L
+        private const val DEFAULT_MAX_ENTRIES = 64
+        private const val DEFAULT_FRAME_COUNT = 8
+
+        /**
+         * The max number of throwables in the cause chain used in the fingerprint, also guards
+         * against cycles.
+         */
+        private const val MAX_CAUSE_DEPTH = 4
+    }
+}
@@ -27,6 +27,8 @@ import javax.xml.transform.stream.StreamSource
 
 /**
  * Simply format the XML with a indent of [XML_INDENT].
+ *
+ * @see StreamingXmlFormatter
  * TODO: Make indent size and enable/disable state configurable.
  */
 class DefaultXmlFormatter : XmlFormatter {
@@ -40,14 +42,28 @@ class DefaultXmlFormatter : XmlFormatter {
         return try {
             val xmlInput = StreamSource(StringReader(data))
             val xmlOutput = StreamResult(StringWriter())
-            val transformer = TransformerFactory.newInstance().newTransformer()
+            // The factory is not guaranteed to be thread-safe, but the transformers are cheap.
+            val transformer = synchronized(TRANSFORMER_FACTORY) {
+                TRANSFORMER_FACTORY.newTransformer()
+            }
             transformer.setOutputProperty(OutputKeys.INDENT, "yes")
             transformer.setOutputProperty(
                 "{http://xml.apache.org/xslt}indent-amount",
                 XML_INDENT.toString()
             )
             transformer.transform(xmlInput, xmlOutput)
-            xmlOutput.writer.toString().replaceFirst(">", ">" + SystemCompat.lineSeparator)
+            // Break the line after the XML declaration.
+            val xml = xmlOutput.writer.toString()
+            val firstTagEnd = xml.indexOf('>')
+            if (firstTagEnd < 0) {
+                xml
+            } else {
+                StringBuilder(xml.length + 2)
+                    .append(xml, 0, firstTagEnd + 1)
+                    .append(SystemCompat.lineSeparator)
+                    .append(xml, firstTagEnd + 1, xml.length)
+                    .toString()
+            }
         } catch (e: Exception) {
             Platform.get().warn(e.message ?: "XML parsing error")
             data
@@ -56,5 +72,13 @@ class DefaultXmlFormatter : XmlFormatter {
 
     companion object {
         private const val XML_INDENT = 4
+
+        /**
+         * Looking up the factory is slow, involving service lookup and class loading, so it is
+         * only done once.
+         */
+        private val TRANSFORMER_FACTORY: TransformerFactory by lazy {
+            TransformerFactory.newInstance()
+        }
     }
 }
\ No newline at end of file
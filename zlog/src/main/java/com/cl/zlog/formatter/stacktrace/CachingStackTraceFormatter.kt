@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.formatter.stacktrace
+
+/**
+ * A stack trace formatter which caches the formatted stack traces, keyed by the call sites, so a
+ * log printed from the same place again is not formatted again.
+ *
+ * The cache is bounded, the least recently used call sites are evicted first. It mostly helps when
+ * the logs are printed from a limited number of places with a small stack trace depth, e.g. in QA
+ * builds logging with stack trace under load.
+ *
+ * @param delegate   the formatter to format the stack traces not cached
+ * @param maxEntries the max number of call sites to cache
+ * @since 2.1.0
+ */
+class CachingStackTraceFormatter @JvmOverloads constructor(
+    private val delegate: StackTraceFormatter = DefaultStackTraceFormatter(),
+    private val maxEntries: Int = DEFAULT_MAX_ENTRIES
+) : StackTraceFormatter {
+
+    private val cache = object : LinkedHashMap<List<StackTraceElement>, String>(16, 0.75f, true) {
+        override fun removeEldestEntry(
+            eldest: MutableMap.MutableEntry<List<StackTraceElement>, String>?
+        ): Boolean {
+            return size > maxEntries
+        }
+    }
+
+    init {
+        require(maxEntries > 0) { "maxEntries must be positive" }
+    }
+
+    override fun format(data: Array<StackTraceElement>): String {
+        // The captured stack trace is never modified, so it can be a key.
+        val callSite = data.asList()
+        synchronized(cache) {
+            val formatted = cache[callSite]
+            if (formatted != null) {
+                return formatted
+            }
+        }
+        val formatted = delegate.format(data)
+        synchronized(cache) {
+            cache[callSite] = formatted
+        }
+        return formatted
+    }
+
+    companion object {
+        private const val DEFAULT_MAX_ENTRIES = 256
+    }
+}
@@ -23,6 +23,13 @@ package com.cl.zlog.formatter.thread
 class DefaultThreadFormatter : ThreadFormatter {
 
     override fun format(data: Thread): String {
-        return "Thread: ${data.name}"
+        return formatName(data.name)
+    }
+
+    /**
+     * Format the thread info from the name captured earlier, without the thread.
+     */
+    internal fun formatName(name: String): String {
+        return "Thread: $name"
     }
 }
\ No newline at end of file
@@ -21,8 +21,9 @@ import com.cl.zlog.flattener.Flattener
 import com.cl.zlog.flattener.Flattener2
 import com.cl.zlog.formatter.border.BorderFormatter
 import com.cl.zlog.formatter.border.DefaultBorderFormatter
-import com.cl.zlog.formatter.message.json.DefaultJsonFormatter
 import com.cl.zlog.formatter.message.json.JsonFormatter
+import com.cl.zlog.formatter.message.json.StreamingJsonFormatter
+import com.cl.zlog.formatter.message.`object`.BoundedObjectFormatter
 import com.cl.zlog.formatter.message.`object`.ObjectFormatter
 import com.cl.zlog.formatter.message.throwable.DefaultThrowableFormatter
 import com.cl.zlog.formatter.message.throwable.ThrowableFormatter
@@ -57,7 +58,7 @@ object DefaultsFactory {
      * Create the default JSON formatter.
      */
     fun createJsonFormatter(): JsonFormatter {
-        return DefaultJsonFormatter()
+        return StreamingJsonFormatter()
     }
 
     /**
@@ -144,12 +145,26 @@ object DefaultsFactory {
         return SimpleWriter()
     }
 
+    /**
+     * The builtin object formatters, the bounded formatter for arrays, collections and maps, plus
+     * the platform specific ones.
+     */
+    private val BUILTIN_OBJECT_FORMATTERS: Map<Class<*>, ObjectFormatter<*>> by lazy {
+        val boundedObjectFormatter = BoundedObjectFormatter.Builder().build()
+        val formatters = HashMap<Class<*>, ObjectFormatter<*>>()
+        for (type in BoundedObjectFormatter.SUPPORTED_TYPES) {
+            formatters[type] = boundedObjectFormatter
+        }
+        formatters.putAll(Platform.get().builtinObjectFormatters())
+        formatters
+    }
+
     /**
      * Get the builtin object formatters.
      *
      * @return the builtin object formatters
      */
     fun builtinObjectFormatters(): Map<Class<*>, ObjectFormatter<*>> {
-        return Platform.get().builtinObjectFormatters()
+        return BUILTIN_OBJECT_FORMATTERS
     }
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.internal
+
+import com.cl.zlog.internal.printer.QueueWorker
+import com.cl.zlog.printer.Drainable
+import com.cl.zlog.printer.Printer
+import java.util.Collections
+import java.util.WeakHashMap
+
+/**
+ * The background thread formatting and printing the logs of all the loggers in deferred
+ * formatting mode, in the order they are logged.
+ *
+ * Draining it also drains the printers it has printed to, so the logs still being formatted are
+ * not lost when the process is dying, no matter in which order the drainables are drained.
+ *
+ * At most [QUEUE_CAPACITY] logs wait to be formatted, logging threads block when exceeded, so
+ * the logs are never reordered or dropped, and the memory held by the captured inputs is
+ * bounded. A log logged by the worker thread itself, e.g. by an interceptor, is formatted
+ * immediately when the queue is full, as it would wait forever otherwise.
+ *
+ * @see com.cl.zlog.LogConfiguration.Builder.enableDeferredFormatting
+ */
+internal object DeferredFormattingWorker : Drainable {
+
+    /**
+     * The max number of logs waiting to be formatted.
+     */
+    private const val QUEUE_CAPACITY = 10000
+
+    private val worker = object : QueueWorker<Task>(
+        "ZLog-Formatter", QUEUE_CAPACITY, drainable = this@DeferredFormattingWorker
+    ) {
+        public override fun process(item: Task) {
+            item.runnable.run()
+            if (item.printer is Drainable) {
+                printers.add(item.printer)
+            }
+        }
+    }
+
+    /**
+     * The printers ever printed to, which should be drained after the tasks.
+     */
+    private val printers: MutableSet<Drainable> =
+        Collections.synchronizedSet(Collections.newSetFromMap(WeakHashMap()))
+
+    /**
+     * Enqueue a task which formats a log and prints it to the printer.
+     *
+     * @param printer the printer the log is printed to
+     * @param task    the task formatting and printing the log
+     */
+    fun enqueue(printer: Printer, task: Runnable) {
+        val item = Task(printer, task)
+        if (worker.isWorkerThread()) {
+            if (!worker.offer(item)) {
+                worker.process(item)
+            }
+            return
+        }
+        worker.put(item)
+    }
+
+    override fun drain(timeoutMillis: Long): Boolean {
+        val deadline = System.currentTimeMillis() + timeoutMillis
+        if (!worker.drain(timeoutMillis)) {
+            return false
+        }
+        val snapshot: List<Drainable> = synchronized(printers) { ArrayList(printers) }
+        for (printer in snapshot) {
+            val remaining = deadline - System.currentTimeMillis()
+            if (remaining <= 0 || !printer.drain(remaining)) {
+                return false
+            }
+        }
+        return true
+    }
+
+    private class Task(val printer: Printer, val runnable: Runnable)
+}
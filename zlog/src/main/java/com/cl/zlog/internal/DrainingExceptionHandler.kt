@@ -0,0 +1,49 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.internal
+
+import com.cl.zlog.ZLog
+import com.cl.zlog.internal.printer.DrainableRegistry
+
+/**
+ * Log the uncaught exception, drain all the asynchronous printers so the pending logs are not
+ * lost, and then hand the exception over to the previous handler.
+ */
+internal class DrainingExceptionHandler(
+    private val previous: Thread.UncaughtExceptionHandler?,
+    private val timeoutMillis: Long
+) : Thread.UncaughtExceptionHandler {
+
+    override fun uncaughtException(t: Thread, e: Throwable) {
+        try {
+            if (ZLog.sIsInitialized) {
+                ZLog.e("Uncaught exception in thread ${t.name}", e)
+            }
+            DrainableRegistry.drainAll(timeoutMillis)
+        } catch (ignored: Throwable) {
+            // Never let logging hide the real crash.
+        } finally {
+            if (previous != null) {
+                previous.uncaughtException(t, e)
+            } else {
+                // Same as what the thread group does when there is no default handler.
+                System.err.print("Exception in thread \"" + t.name + "\" ")
+                e.printStackTrace()
+            }
+        }
+    }
+}
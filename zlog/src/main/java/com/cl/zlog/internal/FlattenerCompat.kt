@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.internal
+
+import com.cl.zlog.LogEvent
+import com.cl.zlog.flattener.EventFlattener
+import com.cl.zlog.flattener.Flattener2
+import com.cl.zlog.flattener.Flattener3
+import com.cl.zlog.internal.util.ClassCache
+
+/**
+ * Decides whether the buffer-appending methods of a flattener can be used instead of
+ * [Flattener2.flatten].
+ *
+ * The builtin flatteners are open, a subclass overriding only [Flattener2.flatten], e.g. to
+ * redact the message, predates [Flattener3] and expects all the logs flattened by its own
+ * method, so the appending methods declared above it are not used.
+ */
+object FlattenerCompat {
+
+    private val flattenToUsable = ClassCache { clazz ->
+        isDeclaredBelowFlatten(
+            clazz, "flattenTo", Long::class.javaPrimitiveType!!, Int::class.javaPrimitiveType!!,
+            String::class.java, String::class.java, StringBuilder::class.java
+        )
+    }
+
+    private val eventFlattenToUsable = ClassCache { clazz ->
+        isDeclaredBelowFlatten(clazz, "flattenTo", LogEvent::class.java, StringBuilder::class.java)
+    }
+
+    /**
+     * Whether [Flattener3.flattenTo] flattens the log in the same way as [Flattener2.flatten].
+     *
+     * @param flattener the flattener
+     * @return true if [Flattener3.flattenTo] can be used
+     */
+    @JvmStatic
+    fun canFlattenTo(flattener: Flattener3): Boolean {
+        return flattenToUsable.get(flattener.javaClass)
+    }
+
+    /**
+     * Whether [EventFlattener.flattenTo] can be used instead of [Flattener2.flatten], i.e.
+     * [Flattener2.flatten] is not overridden by a subclass.
+     *
+     * @param flattener the flattener
+     * @return true if [EventFlattener.flattenTo] can be used
+     */
+    @JvmStatic
+    fun canFlattenEventTo(flattener: EventFlattener): Boolean {
+        return eventFlattenToUsable.get(flattener.javaClass)
+    }
+
+    /**
+     * Whether the method is declared in the class declaring [Flattener2.flatten], or in one of
+     * its subclasses.
+     */
+    private fun isDeclaredBelowFlatten(
+        clazz: Class<*>,
+        name: String,
+        vararg parameterTypes: Class<*>
+    ): Boolean {
+        return try {
+            val flattenClass = clazz.getMethod(
+                "flatten", Long::class.javaPrimitiveType, Int::class.javaPrimitiveType,
+                String::class.java, String::class.java
+            ).declaringClass
+            flattenClass.isAssignableFrom(clazz.getMethod(name, *parameterTypes).declaringClass)
+        } catch (e: NoSuchMethodException) {
+            // Never happens, the methods are declared by the interfaces.
+            false
+        }
+    }
+}
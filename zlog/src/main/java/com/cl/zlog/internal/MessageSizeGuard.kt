@@ -0,0 +1,146 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.internal
+
+import com.cl.zlog.internal.printer.QueueWorker
+import com.cl.zlog.printer.Drainable
+import java.io.File
+import java.io.FileOutputStream
+import java.io.OutputStreamWriter
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Cuts the oversized messages before they are formatted and printed, counts them, and optionally
+ * spills the full messages to a separate file, referenced by id from the cut messages.
+ *
+ * The spill file is written in a background thread, at most [SPILL_QUEUE_CAPACITY] messages wait
+ * to be spilled, more oversized messages are cut without being spilled. Draining it waits until
+ * the messages already cut are spilled.
+ */
+internal object MessageSizeGuard : Drainable {
+
+    /**
+     * The max size of a spill file, it's renamed with ".bak" suffix when exceeded, replacing the
+     * previous backup.
+     */
+    private const val MAX_SPILL_FILE_SIZE = 8L * 1024 * 1024
+
+    /**
+     * The max number of full messages waiting to be spilled.
+     */
+    private const val SPILL_QUEUE_CAPACITY = 64
+
+    private val oversizedCount = AtomicLong()
+
+    private val nextSpillId = AtomicLong()
+
+    private val spillWorker = object : QueueWorker<Spill>(
+        "ZLog-Spill", SPILL_QUEUE_CAPACITY, drainable = this@MessageSizeGuard
+    ) {
+        override fun process(item: Spill) {
+            write(item)
+        }
+    }
+
+    /**
+     * Get the number of oversized messages cut so far.
+     */
+    fun oversizedCount(): Long {
+        return oversizedCount.get()
+    }
+
+    /**
+     * Cut the message to the max length, if it's longer than that.
+     *
+     * @param msg           the message
+     * @param maxLength     the max length of message
+     * @param timeMillis    the time of the log
+     * @param tag           the tag of the log
+     * @param spillFile     the file to spill the full message, null if not spilling
+     * @return the message, or the cut message with a marker, which may exceed the max length
+     */
+    fun guard(
+        msg: String,
+        maxLength: Int,
+        timeMillis: Long,
+        tag: String,
+        spillFile: File?
+    ): String {
+        if (msg.length <= maxLength) {
+            return msg
+        }
+        oversizedCount.incrementAndGet()
+        val spillId = if (spillFile != null) spill(spillFile, msg, timeMillis, tag) else null
+
+        var end = maxLength
+        if (end > 0 && Character.isHighSurrogate(msg[end - 1])) {
+            end--
+        }
+        val sb = StringBuilder(end + 96)
+        sb.append(msg, 0, end).append(SystemCompat.lineSeparator)
+            .append("...(truncated, the original message has ").append(msg.length).append(" chars")
+        if (spillId != null) {
+            sb.append(", see #").append(spillId).append(" in ").append(spillFile!!.name)
+        }
+        sb.append(')')
+        return sb.toString()
+    }
+
+    override fun drain(timeoutMillis: Long): Boolean {
+        return spillWorker.drain(timeoutMillis)
+    }
+
+    /**
+     * Enqueue the full message to be spilled in background, never blocks.
+     *
+     * @return the id of the spilled message, or null if there are too many messages waiting
+     */
+    private fun spill(spillFile: File, msg: String, timeMillis: Long, tag: String): String? {
+        val id = "$timeMillis-${nextSpillId.incrementAndGet()}"
+        if (!spillWorker.offer(Spill(spillFile, id, tag, msg))) {
+            Platform.get().warn("Too many oversized messages to spill, #$id is not spilled")
+            return null
+        }
+        return id
+    }
+
+    /**
+     * Append the full message to the spill file, in the background thread.
+     */
+    private fun write(spill: Spill) {
+        val spillFile = spill.file
+        try {
+            if (spillFile.length() > MAX_SPILL_FILE_SIZE) {
+                val backup = File(spillFile.path + ".bak")
+                backup.delete()
+                spillFile.renameTo(backup)
+            } else {
+                spillFile.parentFile?.mkdirs()
+            }
+            OutputStreamWriter(FileOutputStream(spillFile, true), Charsets.UTF_8).use {
+                it.write("----- #${spill.id} ${spill.tag}, ${spill.msg.length} chars")
+                it.write(SystemCompat.lineSeparator)
+                it.write(spill.msg)
+                it.write(SystemCompat.lineSeparator)
+            }
+        } catch (e: Exception) {
+            Platform.get().warn("Spill oversized message to $spillFile failed: ${e.message}")
+        }
+    }
+
+    private class Spill(val file: File, val id: String, val tag: String, val msg: String)
+}
@@ -17,6 +17,7 @@
 package com.cl.zlog.internal
 
 import android.annotation.SuppressLint
+import android.app.Application
 import android.content.Intent
 import android.os.Build
 import android.os.Bundle
@@ -26,6 +27,7 @@ import com.cl.zlog.formatter.message.`object`.ObjectFormatter
 import com.cl.zlog.printer.AndroidPrinter
 import com.cl.zlog.printer.ConsolePrinter
 import com.cl.zlog.printer.Printer
+import java.io.File
 
 open class Platform {
 
@@ -42,6 +44,19 @@ open class Platform {
         return emptyMap()
     }
 
+    /**
+     * Get the name of current process, the process id is used if name is not available.
+     *
+     * @return the name of current process, or null if neither name nor id is available
+     */
+    open fun processName(): String? {
+        return try {
+            File("/proc/self").canonicalFile.name
+        } catch (e: Exception) {
+            null
+        }
+    }
+
     open fun warn(msg: String) {
         println(msg)
     }
@@ -68,6 +83,18 @@ open class Platform {
             return BUILTIN_OBJECT_FORMATTERS
         }
 
+        override fun processName(): String? {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+                return Application.getProcessName()
+            }
+            return try {
+                File("/proc/self/cmdline").readText().substringBefore('\u0000').trim()
+                    .ifEmpty { super.processName() }
+            } catch (e: Exception) {
+                super.processName()
+            }
+        }
+
         override fun warn(msg: String) {
             android.util.Log.w("ZLog", msg)
         }
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.internal.printer
+
+import com.cl.zlog.internal.Platform
+import com.cl.zlog.printer.Drainable
+import java.util.Collections
+import java.util.WeakHashMap
+
+/**
+ * Keeps all the alive [Drainable]s, so they can be drained together when the process is dying.
+ *
+ * Drainables are weakly referenced, they don't need to unregister themselves.
+ */
+object DrainableRegistry {
+
+    private val drainables: MutableSet<Drainable> =
+        Collections.synchronizedSet(Collections.newSetFromMap(WeakHashMap()))
+
+    /**
+     * Register a drainable, normally called when it starts printing asynchronously.
+     */
+    @JvmStatic
+    fun register(drainable: Drainable) {
+        drainables.add(drainable)
+    }
+
+    /**
+     * Drain all the registered drainables, within a total time budget.
+     *
+     * @param timeoutMillis the max time to wait for all drainables, in milliseconds
+     * @return true if all drainables are drained, false if timeout
+     */
+    @JvmStatic
+    fun drainAll(timeoutMillis: Long): Boolean {
+        val snapshot: List<Drainable> = synchronized(drainables) { ArrayList(drainables) }
+        val deadline = System.currentTimeMillis() + timeoutMillis
+        var allDrained = true
+        for (drainable in snapshot) {
+            val remaining = deadline - System.currentTimeMillis()
+            try {
+                if (remaining <= 0 || !drainable.drain(remaining)) {
+                    allDrained = false
+                }
+            } catch (e: Exception) {
+                Platform.get().warn("Drain $drainable failed: ${e.message}")
+                allDrained = false
+            }
+        }
+        return allDrained
+    }
+}
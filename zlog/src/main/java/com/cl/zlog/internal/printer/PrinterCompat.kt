@@ -0,0 +1,43 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.internal.printer
+
+import com.cl.zlog.LogEvent
+import com.cl.zlog.printer.EventPrinter
+import com.cl.zlog.printer.Printer
+
+/**
+ * Compatible way to print a [LogEvent] with any [Printer].
+ */
+object PrinterCompat {
+
+    /**
+     * Print the log event with the printer, the whole event is passed if the printer is an
+     * [EventPrinter], otherwise only the level, tag and message are passed.
+     *
+     * @param printer the printer to print the log event
+     * @param event   the log event to print
+     */
+    @JvmStatic
+    fun println(printer: Printer, event: LogEvent) {
+        if (printer is EventPrinter) {
+            printer.println(event)
+        } else {
+            printer.println(event.level, event.tag, event.msg)
+        }
+    }
+}
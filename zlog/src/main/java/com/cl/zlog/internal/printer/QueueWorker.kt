@@ -0,0 +1,350 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.internal.printer
+
+import com.cl.zlog.internal.Platform
+import com.cl.zlog.printer.Drainable
+import java.util.concurrent.BlockingQueue
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * A background thread taking items from a queue and processing them in order, shared by all the
+ * asynchronous printers.
+ *
+ * The thread is started on the first enqueued item. [drain] waits until all the items enqueued
+ * before calling are processed, and then asks the worker to flush, see [afterPoll], so workers
+ * collecting items in a buffer can be drained as well.
+ *
+ * Items are only processed in the worker thread, the [process], [pollTimeoutMillis] and
+ * [afterPoll] of a subclass don't need any synchronization.
+ *
+ * @param E the type of items
+ * @param threadName the name of the worker thread
+ * @param capacity   the max number of items in the queue
+ * @param daemon     whether the worker thread is a daemon thread
+ * @param drainable  registered to [DrainableRegistry] when started, null if not registering
+ */
+abstract class QueueWorker<E : Any>(
+    private val threadName: String,
+    capacity: Int = Int.MAX_VALUE,
+    private val daemon: Boolean = true,
+    private val drainable: Drainable? = null
+) : Runnable {
+
+    /**
+     * The items, and [FLUSH] put by [drain] to wake up the worker.
+     */
+    private val queue: BlockingQueue<Any> = LinkedBlockingQueue(capacity)
+
+    @Volatile
+    private var started = false
+
+    @Volatile
+    private var thread: Thread? = null
+
+    /**
+     * Set by [drain], check if the requested flush is due after each poll.
+     */
+    @Volatile
+    private var flushRequested = false
+
+    /**
+     * The number of items ever enqueued.
+     */
+    private val enqueuedCount = AtomicLong()
+
+    /**
+     * The number of items ever taken from the queue, including the evicted ones.
+     */
+    private val takenCount = AtomicLong()
+
+    /**
+     * The sequence of the last flush requested by [drain], guarded by [drainLock].
+     */
+    private var requestedFlush = 0L
+
+    /**
+     * The sequence of the last flush done, guarded by [drainLock].
+     */
+    private var handledFlush = 0L
+
+    /**
+     * The number of items which should be taken before the requested flush, guarded by
+     * [drainLock].
+     */
+    private var flushTarget = 0L
+
+    /**
+     * The result of the last flush, returned by [drain], guarded by [drainLock].
+     */
+    private var flushResult = true
+
+    private val drainLock = Object()
+
+    /**
+     * Process an item, in the worker thread.
+     *
+     * An exception thrown is reported and the worker goes on with the next item.
+     *
+     * @param item the item taken from the queue
+     */
+    protected abstract fun process(item: E)
+
+    /**
+     * How long to wait for the next item before calling [afterPoll] anyway, in milliseconds,
+     * [NO_TIMEOUT] by default.
+     */
+    protected open fun pollTimeoutMillis(): Long {
+        return NO_TIMEOUT
+    }
+
+    /**
+     * Called after each poll of the queue, whether an item is taken or not, e.g. to write out the
+     * collected items when the buffer is full or has been waiting for long.
+     *
+     * @param flush true if a [drain] is waiting for all the items processed so far to be written
+     *              out, now is the time to flush
+     * @return the result of [drain] if flushing, e.g. false if failed to write out, ignored if
+     * not flushing
+     */
+    protected open fun afterPoll(flush: Boolean): Boolean {
+        return true
+    }
+
+    /**
+     * Whether the worker is started.
+     *
+     * @return true if started, false otherwise
+     */
+    fun isStarted(): Boolean {
+        return started
+    }
+
+    /**
+     * Whether called in the worker thread, e.g. by [process] indirectly.
+     *
+     * @return true if the current thread is the worker thread
+     */
+    fun isWorkerThread(): Boolean {
+        return Thread.currentThread() === thread
+    }
+
+    /**
+     * Start the worker thread, if not started yet.
+     */
+    open fun start() {
+        synchronized(this) {
+            if (started) {
+                return
+            }
+            thread = Thread(this, threadName).apply { isDaemon = daemon }
+            thread!!.start()
+            started = true
+            if (drainable != null) {
+                DrainableRegistry.register(drainable)
+            }
+        }
+    }
+
+    /**
+     * Enqueue an item, block if the queue is full.
+     *
+     * @param item the item
+     * @return false if interrupted while waiting, the item is not enqueued
+     */
+    fun put(item: E): Boolean {
+        if (!started) {
+            start()
+        }
+        try {
+            queue.put(item)
+        } catch (e: InterruptedException) {
+            Thread.currentThread().interrupt()
+            return false
+        }
+        enqueuedCount.incrementAndGet()
+        return true
+    }
+
+    /**
+     * Enqueue an item if the queue is not full, never blocks.
+     *
+     * @param item the item
+     * @return false if the queue is full, the item is not enqueued
+     */
+    fun offer(item: E): Boolean {
+        if (!started) {
+            start()
+        }
+        if (!queue.offer(item)) {
+            return false
+        }
+        enqueuedCount.incrementAndGet()
+        return true
+    }
+
+    /**
+     * Remove the oldest item in the queue without processing it, to make room for a new one.
+     *
+     * @return true if an item is removed, false if the queue is empty
+     */
+    fun evictOldest(): Boolean {
+        while (true) {
+            val item = queue.poll() ?: return false
+            if (item !== FLUSH) {
+                takenCount.incrementAndGet()
+                return true
+            }
+        }
+    }
+
+    /**
+     * Get the next item in the queue without taking it, only called in the worker thread, e.g.
+     * to check if it can be processed together with the current one.
+     *
+     * @return the next item, or null if there is no item now
+     */
+    @Suppress("UNCHECKED_CAST")
+    protected fun peekNext(): E? {
+        val item = queue.peek()
+        return if (item == null || item === FLUSH) null else item as E
+    }
+
+    /**
+     * Take the next item in the queue, only called in the worker thread, normally after
+     * [peekNext], the item is deemed processed along with the current one.
+     *
+     * @return the next item, or null if there is no item now
+     */
+    @Suppress("UNCHECKED_CAST")
+    protected fun pollNext(): E? {
+        val item = peekNext() ?: return null
+        queue.poll()
+        takenCount.incrementAndGet()
+        return item as E
+    }
+
+    /**
+     * Wait until all the items enqueued before calling are processed and flushed.
+     *
+     * @param timeoutMillis the max time to wait, in milliseconds
+     * @return false if timeout, otherwise the result of [afterPoll] when flushing
+     */
+    open fun drain(timeoutMillis: Long): Boolean {
+        if (!started) {
+            return true
+        }
+        val deadline = System.currentTimeMillis() + timeoutMillis
+        synchronized(drainLock) {
+            flushTarget = maxOf(flushTarget, enqueuedCount.get())
+            val sequence = ++requestedFlush
+            flushRequested = true
+            // Wake up the worker, if the queue is full, the worker is busy anyway.
+            queue.offer(FLUSH)
+            try {
+                while (handledFlush < sequence) {
+                    val remaining = deadline - System.currentTimeMillis()
+                    if (remaining <= 0) {
+                        return false
+                    }
+                    drainLock.wait(remaining)
+                }
+                return flushResult
+            } catch (e: InterruptedException) {
+                Thread.currentThread().interrupt()
+                return false
+            }
+        }
+    }
+
+    override fun run() {
+        try {
+            while (true) {
+                val timeout = pollTimeoutMillis()
+                val item = if (timeout == NO_TIMEOUT) {
+                    queue.take()
+                } else {
+                    queue.poll(timeout, TimeUnit.MILLISECONDS)
+                }
+                if (item != null && item !== FLUSH) {
+                    takenCount.incrementAndGet()
+                    @Suppress("UNCHECKED_CAST")
+                    processSafely(item as E)
+                }
+                val sequence = if (flushRequested) pendingFlush() else 0L
+                val result = try {
+                    afterPoll(sequence > 0)
+                } catch (e: Exception) {
+                    Platform.get().error("$threadName failed: $e")
+                    false
+                }
+                if (sequence > 0) {
+                    synchronized(drainLock) {
+                        handledFlush = sequence
+                        flushResult = result
+                        drainLock.notifyAll()
+                    }
+                }
+            }
+        } catch (e: InterruptedException) {
+            e.printStackTrace()
+            synchronized(this) {
+                started = false
+            }
+        }
+    }
+
+    private fun processSafely(item: E) {
+        try {
+            process(item)
+        } catch (e: Exception) {
+            // Don't let a broken item stop the worker.
+            Platform.get().error("$threadName failed: $e")
+        }
+    }
+
+    /**
+     * Get the sequence of the requested flush, if all the items it waits for are taken.
+     *
+     * @return the sequence, or 0 if there is no flush to do now
+     */
+    private fun pendingFlush(): Long {
+        synchronized(drainLock) {
+            if (takenCount.get() < flushTarget) {
+                // Some items are still in the queue.
+                return 0
+            }
+            flushRequested = false
+            return requestedFlush
+        }
+    }
+
+    companion object {
+
+        /**
+         * Wait for the next item without timeout.
+         */
+        const val NO_TIMEOUT = -1L
+
+        /**
+         * Put into the queue to wake up the worker.
+         */
+        private val FLUSH = Any()
+    }
+}
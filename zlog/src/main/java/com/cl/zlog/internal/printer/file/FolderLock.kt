@@ -0,0 +1,69 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.internal.printer.file
+
+import com.cl.zlog.internal.Platform
+import java.io.File
+import java.io.RandomAccessFile
+import java.nio.channels.OverlappingFileLockException
+
+/**
+ * An inter-process lock of a log folder, backed by a hidden lock file in the folder.
+ *
+ * The lock is only held while renaming or deleting log files, never while writing logs, so
+ * processes never wait for each other, they just skip the work if another process is doing it.
+ */
+class FolderLock(folder: File) {
+
+    private val lockFile = File(folder, LOCK_FILE_NAME)
+
+    /**
+     * Run the action if the lock is free, and release the lock after that.
+     *
+     * @param action the action to run while holding the lock
+     * @return true if the action is run, false if the lock is held by someone else
+     */
+    fun tryRun(action: Runnable): Boolean {
+        try {
+            RandomAccessFile(lockFile, "rw").use { raf ->
+                val lock = try {
+                    raf.channel.tryLock()
+                } catch (e: OverlappingFileLockException) {
+                    // Held by another printer in this process.
+                    null
+                } ?: return false
+                try {
+                    action.run()
+                } finally {
+                    lock.release()
+                }
+                return true
+            }
+        } catch (e: Exception) {
+            Platform.get().warn("Lock log folder failed: ${e.message}")
+            return false
+        }
+    }
+
+    companion object {
+
+        /**
+         * The name of lock file, hidden files are never treated as log files.
+         */
+        const val LOCK_FILE_NAME = ".zlog.lock"
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.internal.util
+
+import java.lang.ref.WeakReference
+
+/**
+ * Values computed once for each class, like `java.lang.ClassValue`, which is not available on
+ * Android.
+ *
+ * The classes are weakly referenced, so the cache never keeps a class, or its class loader, from
+ * being unloaded, e.g. generated lambda and proxy classes. The values should not reference the
+ * class strongly for the same reason.
+ *
+ * Lookups read an immutable snapshot without locking or allocation, a new snapshot is published
+ * when a value is added, which happens once for each class, and drops the cleared entries.
+ *
+ * @param V the type of values
+ * @param compute compute the value of a class, called at most once for each class, with the cache
+ *                locked
+ */
+class ClassCache<V : Any>(private val compute: (Class<*>) -> V) {
+
+    @Volatile
+    private var table: Table = Table(arrayOfNulls(INITIAL_CAPACITY), arrayOfNulls(INITIAL_CAPACITY))
+
+    /**
+     * Get the value of the class, computed on first access.
+     *
+     * @param clazz the class
+     * @return the value of the class
+     */
+    fun get(clazz: Class<*>): V {
+        table.get(clazz)?.let { return it }
+        synchronized(this) {
+            val table = table
+            table.get(clazz)?.let { return it }
+            val value = compute(clazz)
+            this.table = table.with(clazz, value)
+            return value
+        }
+    }
+
+    /**
+     * An immutable open addressing hash table, indexed by the identity hash code of classes.
+     */
+    private inner class Table(
+        private val keys: Array<WeakReference<Class<*>>?>,
+        private val values: Array<Any?>
+    ) {
+
+        fun get(clazz: Class<*>): V? {
+            val mask = keys.size - 1
+            var i = System.identityHashCode(clazz) and mask
+            while (true) {
+                val key = keys[i] ?: return null
+                if (key.get() === clazz) {
+                    @Suppress("UNCHECKED_CAST")
+                    return values[i] as V
+                }
+                i = (i + 1) and mask
+            }
+        }
+
+        /**
+         * Copy the live entries and the new one to a new table, at most half full.
+         */
+        fun with(clazz: Class<*>, value: V): Table {
+            var liveCount = 1
+            for (key in keys) {
+                if (key?.get() != null) {
+                    liveCount++
+                }
+            }
+            var capacity = INITIAL_CAPACITY
+            while (capacity < liveCount * 2) {
+                capacity *= 2
+            }
+            val newTable = Table(arrayOfNulls(capacity), arrayOfNulls(capacity))
+            for (i in keys.indices) {
+                val key = keys[i] ?: continue
+                val keyClass = key.get() ?: continue
+                newTable.put(keyClass, key, values[i])
+            }
+            newTable.put(clazz, WeakReference(clazz), value)
+            return newTable
+        }
+
+        private fun put(clazz: Class<*>, key: WeakReference<Class<*>>, value: Any?) {
+            val mask = keys.size - 1
+            var i = System.identityHashCode(clazz) and mask
+            while (keys[i] != null) {
+                i = (i + 1) and mask
+            }
+            keys[i] = key
+            values[i] = value
+        }
+    }
+
+    private companion object {
+
+        /**
+         * Must be a power of 2.
+         */
+        const val INITIAL_CAPACITY = 16
+    }
+}
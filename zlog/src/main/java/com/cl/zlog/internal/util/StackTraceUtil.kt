@@ -62,63 +62,62 @@ object StackTraceUtil {
     }
 
     /**
-     * Get the real stack trace and then crop it with a max depth.
+     * Capture the real stack trace of the current thread, and then crop it with a max depth, in a
+     * single pass, without materializing the frames out of the max depth if the runtime allows.
      *
-     * @param stackTrace the full stack trace
-     * @param maxDepth   the max depth of real stack trace that will be cropped, 0 means no limitation
+     * @param stackTraceOrigin the origin of the frames to skip besides ZLog's own, see
+     *                         [getCroppedRealStackTrack]
+     * @param maxDepth         the max depth of real stack trace, 0 means no limitation
      * @return the cropped real stack trace
      */
-    fun getCroppedRealStackTrack(
-        stackTrace: Array<StackTraceElement>,
-        stackTraceOrigin: String?,
-        maxDepth: Int
-    ): Array<StackTraceElement> {
-        return cropStackTrace(getRealStackTrack(stackTrace, stackTraceOrigin), maxDepth)
+    fun captureRealStackTrace(stackTraceOrigin: String?, maxDepth: Int): Array<StackTraceElement> {
+        val stackWalkerCapture = StackWalkerCapture.INSTANCE
+        if (stackWalkerCapture != null) {
+            try {
+                return stackWalkerCapture.capture(stackTraceOrigin, maxDepth)
+            } catch (e: Exception) {
+                // Fall back to the stack trace of throwable.
+            }
+        }
+        return getCroppedRealStackTrack(Throwable().stackTrace, stackTraceOrigin, maxDepth)
     }
 
     /**
-     * Get the real stack trace, all elements that come from ZLog library would be dropped.
+     * Get the real stack trace and then crop it with a max depth.
      *
-     * @param stackTrace the full stack trace
-     * @return the real stack trace, all elements come from system and library user
+     * The top frames coming from ZLog or the stack trace origin are dropped, the frames after them
+     * are the real stack trace.
+     *
+     * @param stackTrace       the full stack trace
+     * @param stackTraceOrigin the origin of the frames to drop besides ZLog's own, e.g. a logger
+     *                         wrapper, null if none
+     * @param maxDepth         the max depth of real stack trace that will be cropped, 0 means no
+     *                         limitation
+     * @return the cropped real stack trace
      */
-    private fun getRealStackTrack(
+    fun getCroppedRealStackTrack(
         stackTrace: Array<StackTraceElement>,
-        stackTraceOrigin: String?
+        stackTraceOrigin: String?,
+        maxDepth: Int
     ): Array<StackTraceElement> {
-        var ignoreDepth = 0
-        val allDepth = stackTrace.size
-        for (i in allDepth - 1 downTo 0) {
-            val className = stackTrace[i].className
-            if (className.startsWith(ZLOG_STACK_TRACE_ORIGIN) ||
-                (stackTraceOrigin != null && className.startsWith(stackTraceOrigin))
-            ) {
-                ignoreDepth = i + 1
-                break
-            }
+        var start = 0
+        while (start < stackTrace.size &&
+            isZLogFrame(stackTrace[start].className, stackTraceOrigin)
+        ) {
+            start++
+        }
+        var depth = stackTrace.size - start
+        if (maxDepth > 0) {
+            depth = minOf(maxDepth, depth)
         }
-        val realDepth = allDepth - ignoreDepth
-        val realStack = Array(realDepth) { stackTrace[ignoreDepth + it] }
-        return realStack
+        return stackTrace.copyOfRange(start, start + depth)
     }
 
     /**
-     * Crop the stack trace with a max depth.
-     *
-     * @param callStack the original stack trace
-     * @param maxDepth  the max depth of real stack trace that will be cropped,
-     *                  0 means no limitation
-     * @return the cropped stack trace
+     * Whether a frame comes from ZLog or the stack trace origin.
      */
-    private fun cropStackTrace(
-        callStack: Array<StackTraceElement>,
-        maxDepth: Int
-    ): Array<StackTraceElement> {
-        var realDepth = callStack.size
-        if (maxDepth > 0) {
-            realDepth = minOf(maxDepth, realDepth)
-        }
-        val realStack = Array(realDepth) { callStack[it] }
-        return realStack
+    internal fun isZLogFrame(className: String, stackTraceOrigin: String?): Boolean {
+        return className.startsWith(ZLOG_STACK_TRACE_ORIGIN) ||
+                (stackTraceOrigin != null && className.startsWith(stackTraceOrigin))
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.internal.util
+
+import java.lang.reflect.Method
+import java.util.function.Function
+import java.util.stream.Stream
+
+/**
+ * Capture the stack frames with `java.lang.StackWalker`, which walks the frames lazily, so only
+ * the frames needed are materialized.
+ *
+ * StackWalker is only available since Java 9 and not on Android, so it is accessed by reflection,
+ * and [INSTANCE] is null if it is not available.
+ */
+internal class StackWalkerCapture private constructor(
+    private val walker: Any,
+    private val walkMethod: Method,
+    private val getClassNameMethod: Method,
+    private val getMethodNameMethod: Method,
+    private val toStackTraceElementMethod: Method
+) {
+
+    /**
+     * Capture the real stack trace of the current thread, see
+     * [StackTraceUtil.captureRealStackTrace].
+     */
+    fun capture(stackTraceOrigin: String?, maxDepth: Int): Array<StackTraceElement> {
+        val walkFunction = Function<Stream<*>, Array<StackTraceElement>> { stream ->
+            val frames = ArrayList<StackTraceElement>(if (maxDepth > 0) maxDepth else 16)
+            val iterator = stream.iterator()
+            var state = SKIPPING_WALKER
+            while (iterator.hasNext()) {
+                val frame = iterator.next()
+                if (state == SKIPPING_WALKER) {
+                    // The frames of walking and reflection, until this method.
+                    if (getClassNameMethod.invoke(frame) == CLASS_NAME &&
+                        getMethodNameMethod.invoke(frame) == "capture"
+                    ) {
+                        state = SKIPPING_ZLOG
+                    }
+                    continue
+                }
+                if (state == SKIPPING_ZLOG) {
+                    val className = getClassNameMethod.invoke(frame) as String
+                    if (StackTraceUtil.isZLogFrame(className, stackTraceOrigin)) {
+                        continue
+                    }
+                    state = COLLECTING
+                }
+                frames.add(toStackTraceElementMethod.invoke(frame) as StackTraceElement)
+                if (frames.size == maxDepth) {
+                    break
+                }
+            }
+            frames.toTypedArray()
+        }
+        @Suppress("UNCHECKED_CAST")
+        return walkMethod.invoke(walker, walkFunction) as Array<StackTraceElement>
+    }
+
+    companion object {
+
+        private val CLASS_NAME = StackWalkerCapture::class.java.name
+
+        private const val SKIPPING_WALKER = 0
+        private const val SKIPPING_ZLOG = 1
+        private const val COLLECTING = 2
+
+        @JvmField
+        val INSTANCE: StackWalkerCapture? = try {
+            val walkerClass = Class.forName("java.lang.StackWalker")
+            val frameClass = Class.forName("java.lang.StackWalker\$StackFrame")
+            val optionClass = Class.forName("java.lang.StackWalker\$Option")
+            // Show the reflection frames, as the stack trace of throwable does.
+            val showReflectFrames = optionClass.getField("SHOW_REFLECT_FRAMES").get(null)
+            StackWalkerCapture(
+                walkerClass.getMethod("getInstance", optionClass).invoke(null, showReflectFrames)!!,
+                walkerClass.getMethod("walk", Function::class.java),
+                frameClass.getMethod("getClassName"),
+                frameClass.getMethod("getMethodName"),
+                frameClass.getMethod("toStackTraceElement")
+            )
+        } catch (e: Throwable) {
+            null
+        }
+    }
+}
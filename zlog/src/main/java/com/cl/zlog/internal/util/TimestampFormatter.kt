@@ -0,0 +1,221 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.internal.util
+
+import java.text.DecimalFormatSymbols
+import java.text.SimpleDateFormat
+import java.util.Date
+import java.util.Locale
+import java.util.TimeZone
+
+/**
+ * A thread-safe replacement of [SimpleDateFormat] for formatting log timestamps.
+ *
+ * The pattern is split at the "ss" and "SSS" fields, the other parts are rendered by
+ * [SimpleDateFormat] once per minute and cached, then each timestamp just patches the digits of
+ * seconds and milliseconds into the cached text, without allocating a [Date] or doing any
+ * calendar arithmetic.
+ *
+ * Any pattern accepted by [SimpleDateFormat] can be used, but patterns with seconds or
+ * milliseconds in other forms, e.g. "s" or "SS", locales not using ASCII digits, and time zones
+ * with offsets not in whole minutes, fall back to [SimpleDateFormat] for every timestamp.
+ *
+ * @throws IllegalArgumentException if the pattern is invalid
+ */
+class TimestampFormatter @JvmOverloads constructor(
+    val pattern: String,
+    val timeZone: TimeZone = TimeZone.getDefault(),
+    private val locale: Locale = Locale.US
+) {
+
+    /**
+     * The parts of pattern between the "ss" and "SSS" fields, one more than [fields], or null if
+     * the pattern is not cacheable.
+     */
+    private val parts: Array<String>?
+
+    /**
+     * The "ss" and "SSS" fields in the pattern, [SECONDS] or [MILLIS].
+     */
+    private val fields: IntArray
+
+    @Volatile
+    private var cache: Cache? = null
+
+    private val fallbackFormat = object : ThreadLocal<SimpleDateFormat>() {
+        override fun initialValue(): SimpleDateFormat {
+            return newDateFormat(pattern)
+        }
+    }
+
+    init {
+        // Validate the pattern.
+        newDateFormat(pattern)
+
+        val partList = ArrayList<String>(3)
+        val fieldList = ArrayList<Int>(2)
+        var cacheable = true
+        var partStart = 0
+        var quoted = false
+        var i = 0
+        while (i < pattern.length) {
+            val c = pattern[i]
+            if (c == '\'') {
+                quoted = !quoted
+                i++
+                continue
+            }
+            if (quoted || !(c in 'a'..'z' || c in 'A'..'Z')) {
+                i++
+                continue
+            }
+            var end = i + 1
+            while (end < pattern.length && pattern[end] == c) {
+                end++
+            }
+            val count = end - i
+            if (c == 's' || c == 'S') {
+                if ((c == 's' && count == 2) || (c == 'S' && count == 3)) {
+                    partList.add(pattern.substring(partStart, i))
+                    fieldList.add(if (c == 's') SECONDS else MILLIS)
+                    partStart = end
+                } else {
+                    cacheable = false
+                }
+            }
+            i = end
+        }
+        partList.add(pattern.substring(partStart))
+        if (DecimalFormatSymbols.getInstance(locale).zeroDigit != '0') {
+            // The patched digits would not match the localized ones.
+            cacheable = false
+        }
+        parts = if (cacheable) partList.toTypedArray() else null
+        fields = fieldList.toIntArray()
+    }
+
+    /**
+     * Format the timestamp.
+     *
+     * @param timeMillis the timestamp in milliseconds
+     * @return the formatted timestamp
+     */
+    fun format(timeMillis: Long): String {
+        val cache = cacheOf(timeMillis) ?: return fallbackFormat.get()!!.format(Date(timeMillis))
+        val chars = cache.template.copyOf()
+        patch(cache, timeMillis, chars)
+        return String(chars)
+    }
+
+    /**
+     * Format the timestamp and append it to the builder.
+     *
+     * @param timeMillis the timestamp in milliseconds
+     * @param sb         the builder to append to
+     */
+    fun formatTo(timeMillis: Long, sb: StringBuilder) {
+        val cache = cacheOf(timeMillis)
+        if (cache == null) {
+            sb.append(fallbackFormat.get()!!.format(Date(timeMillis)))
+            return
+        }
+        val start = sb.length
+        sb.append(cache.template)
+        val millisOfMinute = (timeMillis - cache.minuteMillis).toInt()
+        for (i in fields.indices) {
+            var value = fieldValue(fields[i], millisOfMinute)
+            for (position in start + cache.positions[i] + fieldWidth(fields[i]) - 1 downTo start + cache.positions[i]) {
+                sb.setCharAt(position, '0' + value % 10)
+                value /= 10
+            }
+        }
+    }
+
+    private fun patch(cache: Cache, timeMillis: Long, chars: CharArray) {
+        val millisOfMinute = (timeMillis - cache.minuteMillis).toInt()
+        for (i in fields.indices) {
+            var value = fieldValue(fields[i], millisOfMinute)
+            for (position in cache.positions[i] + fieldWidth(fields[i]) - 1 downTo cache.positions[i]) {
+                chars[position] = '0' + value % 10
+                value /= 10
+            }
+        }
+    }
+
+    /**
+     * Get the cache of the minute of the timestamp, render it if not cached yet.
+     *
+     * @return the cache, or null if the timestamp should be formatted by the fallback format
+     */
+    private fun cacheOf(timeMillis: Long): Cache? {
+        val parts = parts ?: return null
+        val minuteMillis = Math.floorDiv(timeMillis, MILLIS_PER_MINUTE) * MILLIS_PER_MINUTE
+        val cache = cache
+        if (cache != null && cache.minuteMillis == minuteMillis) {
+            return cache
+        }
+        if (timeZone.getOffset(minuteMillis) % MILLIS_PER_MINUTE != 0L) {
+            // The seconds are not the same as in UTC.
+            return null
+        }
+        return render(parts, minuteMillis).also { this.cache = it }
+    }
+
+    /**
+     * Render the parts of pattern with the first millisecond of a minute.
+     */
+    private fun render(parts: Array<String>, minuteMillis: Long): Cache {
+        val date = Date(minuteMillis)
+        val sb = StringBuilder(pattern.length + 8)
+        val positions = IntArray(fields.size)
+        for (i in parts.indices) {
+            if (parts[i].isNotEmpty()) {
+                sb.append(newDateFormat(parts[i]).format(date))
+            }
+            if (i < fields.size) {
+                positions[i] = sb.length
+                sb.append(if (fields[i] == SECONDS) "00" else "000")
+            }
+        }
+        return Cache(minuteMillis, sb.toString().toCharArray(), positions)
+    }
+
+    private fun fieldValue(field: Int, millisOfMinute: Int): Int {
+        return if (field == SECONDS) millisOfMinute / 1000 else millisOfMinute % 1000
+    }
+
+    private fun fieldWidth(field: Int): Int {
+        return if (field == SECONDS) 2 else 3
+    }
+
+    private fun newDateFormat(pattern: String): SimpleDateFormat {
+        return SimpleDateFormat(pattern, locale).also { it.timeZone = timeZone }
+    }
+
+    /**
+     * The rendered text of a minute, with zeros in place of seconds and milliseconds.
+     */
+    private class Cache(val minuteMillis: Long, val template: CharArray, val positions: IntArray)
+
+    companion object {
+        private const val SECONDS = 0
+
+        private const val MILLIS = 1
+
+        private const val MILLIS_PER_MINUTE = 60 * 1000L
+    }
+}
@@ -16,16 +16,29 @@
 
 package com.cl.zlog.printer
 
+import com.cl.zlog.internal.printer.QueueWorker
+
 /**
  * Log [Printer] using [android.util.Log].
+ *
+ * Long messages are separated into chunks of at most [maxChunkSize] UTF-8 bytes, which is how
+ * logcat measures the length of a log.
+ *
+ * If [coalesce] is enabled, logs are printed in a background thread, and consecutive small logs
+ * with the same level and tag are joined by '\n' and printed with a single logcat call, as long
+ * as they fit in a chunk. Coalescing is ignored if [autoSeparate] is enabled.
  */
-class AndroidPrinter @JvmOverloads constructor(
+open class AndroidPrinter @JvmOverloads constructor(
     /**
      * Whether the log should be separated by line separator automatically.
      */
     private val autoSeparate: Boolean = false,
-    private val maxChunkSize: Int = DEFAULT_MAX_CHUNK_SIZE
-) : Printer {
+    private val maxChunkSize: Int = DEFAULT_MAX_CHUNK_SIZE,
+    /**
+     * Whether to print in background and coalesce consecutive small logs, since 2.1.0.
+     */
+    private val coalesce: Boolean = false
+) : Printer, Drainable {
 
     /**
      * Constructor.
@@ -36,68 +49,162 @@ class AndroidPrinter @JvmOverloads constructor(
      */
     constructor(maxChunkSize: Int) : this(false, maxChunkSize)
 
+    private val worker: Worker? = if (coalesce && !autoSeparate) Worker() else null
+
     override fun println(logLevel: Int, tag: String, msg: String) {
+        val w = worker
+        if (w == null) {
+            printChunks(logLevel, tag, msg)
+            return
+        }
+        w.put(Record(logLevel, tag, msg))
+    }
+
+    override fun drain(timeoutMillis: Long): Boolean {
+        return worker?.drain(timeoutMillis) ?: true
+    }
+
+    /**
+     * Separate the message into chunks and print them, chunk boundaries are found in a single
+     * forward pass, and the message is printed as is if it fits in a chunk.
+     */
+    private fun printChunks(logLevel: Int, tag: String, msg: String) {
         val msgLength = msg.length
         var start = 0
-        var end: Int
         while (start < msgLength) {
             if (msg[start] == '\n') {
                 start++
                 continue
             }
-            end = minOf(start + maxChunkSize, msgLength)
-            if (autoSeparate) {
-                val newLine = msg.indexOf('\n', start)
-                end = if (newLine != -1) minOf(end, newLine) else end
-            } else {
-                end = adjustEnd(msg, start, end)
-            }
-            printChunk(logLevel, tag, msg.substring(start, end))
-
+            val end = chunkEnd(msg, start, maxChunkSize, autoSeparate)
+            val chunk = if (start == 0 && end == msgLength) msg else msg.substring(start, end)
+            printChunk(logLevel, tag, chunk)
             start = end
         }
     }
 
     /**
-     * Print single chunk of log in new line.
+     * Print single chunk of log in new line, called in the background thread if [coalesce] is
+     * enabled, open since 2.1.0.
      *
      * @param logLevel the level of log
      * @param tag      the tag of log
      * @param msg      the msg of log
      */
-    internal fun printChunk(logLevel: Int, tag: String, msg: String) {
+    protected open fun printChunk(logLevel: Int, tag: String, msg: String) {
         android.util.Log.println(logLevel, tag, msg)
     }
 
+    private class Record(val level: Int, val tag: String, val msg: String)
+
+    /**
+     * Print logs in background, and coalesce the consecutive small logs already in the queue.
+     */
+    private inner class Worker :
+        QueueWorker<Record>("ZLog-AndroidPrinter", drainable = this@AndroidPrinter) {
+
+        private val coalesced = StringBuilder()
+
+        override fun process(item: Record) {
+            var count = 1
+            var bytes = utf8Length(item.msg, maxChunkSize)
+            if (bytes < maxChunkSize) {
+                // Join the following logs of same level and tag, while they fit.
+                while (true) {
+                    val next = peekNext() ?: break
+                    if (next.level != item.level || next.tag != item.tag) {
+                        break
+                    }
+                    val nextBytes = utf8Length(next.msg, maxChunkSize - bytes - 1)
+                    if (bytes + 1 + nextBytes > maxChunkSize) {
+                        break
+                    }
+                    if (count == 1) {
+                        coalesced.setLength(0)
+                        coalesced.append(item.msg)
+                    }
+                    coalesced.append('\n').append(next.msg)
+                    bytes += 1 + nextBytes
+                    pollNext()
+                    count++
+                }
+            }
+            if (count == 1) {
+                printChunks(item.level, item.tag, item.msg)
+            } else {
+                printChunk(item.level, item.tag, coalesced.toString())
+            }
+        }
+    }
+
     companion object {
         /**
-         * Generally, android has a default length limit of 4096 for single log, but
+         * Generally, android has a default length limit of 4096 bytes for single log, but
          * some device(like HUAWEI) has its own shorter limit, so we just use 4000
          * and wish it could run well in all devices.
          */
         const val DEFAULT_MAX_CHUNK_SIZE = 4000
 
         /**
-         * Move the end to the nearest line separator('\n') (if exist).
+         * Find the end of the chunk starting at [start], in a single forward pass.
+         *
+         * The chunk takes at most [maxBytes] UTF-8 bytes, and never splits a surrogate pair. If
+         * [autoSeparate], the chunk ends at the first '\n', otherwise, if the message has to be
+         * split, the chunk ends at the last '\n' (if exist) within the limit.
+         *
+         * @return the end of chunk, exclusive
          */
-        internal fun adjustEnd(msg: String, start: Int, originEnd: Int): Int {
-            if (originEnd == msg.length) {
-                // Already end of message.
-                return originEnd
-            }
-            if (msg[originEnd] == '\n') {
-                // Already prior to '\n'.
-                return originEnd
+        internal fun chunkEnd(msg: String, start: Int, maxBytes: Int, autoSeparate: Boolean): Int {
+            val length = msg.length
+            var bytes = 0
+            var lastNewLine = -1
+            var i = start
+            while (i < length) {
+                val c = msg[i]
+                if (c == '\n') {
+                    if (autoSeparate) {
+                        return i
+                    }
+                    lastNewLine = i
+                }
+                val charCount = if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(msg[i + 1])) 2 else 1
+                bytes += if (charCount == 2) 4 else utf8Length(c)
+                if (bytes > maxBytes) {
+                    if (i == start) {
+                        // Not even a single char fits, print it anyway.
+                        return i + charCount
+                    }
+                    return if (c != '\n' && lastNewLine > start) lastNewLine else i
+                }
+                i += charCount
             }
-            // Search back for '\n'.
-            var last = originEnd - 1
-            while (start < last) {
-                if (msg[last] == '\n') {
-                    return last
+            return length
+        }
+
+        /**
+         * Count the UTF-8 bytes of the message, stop counting once exceeding [limit].
+         *
+         * @return the UTF-8 bytes, or any value larger than [limit] if exceeded
+         */
+        private fun utf8Length(msg: String, limit: Int): Int {
+            var bytes = 0
+            for (c in msg) {
+                // A surrogate pair takes 4 bytes, same as two surrogates counted separately.
+                bytes += if (Character.isSurrogate(c)) 2 else utf8Length(c)
+                if (bytes > limit) {
+                    break
                 }
-                last--
             }
-            return originEnd
+            return bytes
+        }
+
+        private fun utf8Length(c: Char): Int {
+            return when {
+                c.code < 0x80 -> 1
+                c.code < 0x800 -> 2
+                else -> 3
+            }
         }
     }
-}
\ No newline at end of file
+}
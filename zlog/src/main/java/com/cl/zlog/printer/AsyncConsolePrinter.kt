@@ -0,0 +1,278 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.printer
+
+import com.cl.zlog.LogEvent
+import com.cl.zlog.flattener.Flattener2
+import com.cl.zlog.flattener.Flattener3
+import com.cl.zlog.internal.DefaultsFactory
+import com.cl.zlog.internal.Platform
+import com.cl.zlog.internal.printer.QueueWorker
+import java.io.FileDescriptor
+import java.io.FileOutputStream
+import java.io.IOException
+import java.io.OutputStream
+import java.nio.ByteBuffer
+import java.nio.CharBuffer
+import java.nio.charset.CharsetEncoder
+
+/**
+ * Log [Printer] which prints to the standard output in a background thread, for JVM and
+ * server-side use where [ConsolePrinter] becomes a bottleneck.
+ *
+ * Logs are flattened in the background thread and collected in a large buffer, which is encoded
+ * in UTF-8 and written to [FileDescriptor.out] when it reaches [Builder.bufferSize] chars, or
+ * [Builder.flushIntervalMillis] after the first log in it, so the lock and flush of
+ * [System.out] are not paid by every log. The buffer is written with a single write, unless a
+ * huge log makes it exceed [Builder.bufferSize] chars. Logging threads only block when the queue
+ * is full.
+ *
+ * Logs in the buffer are lost if the process exits without calling [drain], see
+ * [com.cl.zlog.ZLog.installShutdownHook].
+ *
+ * Use the [Builder] to construct an [AsyncConsolePrinter] object.
+ *
+ * @since 2.1.0
+ */
+class AsyncConsolePrinter internal constructor(builder: Builder) : EventPrinter, Drainable {
+
+    /**
+     * The flattener when print a log.
+     */
+    private val flattener: Flattener2
+
+    private val output: OutputStream
+
+    private val bufferSize: Int
+
+    private val flushIntervalMillis: Long
+
+    private val worker: Worker
+
+    init {
+        flattener = builder.flattener
+        output = builder.output ?: FileOutputStream(FileDescriptor.out)
+        bufferSize = builder.bufferSize
+        flushIntervalMillis = builder.flushIntervalMillis
+        worker = Worker(builder.queueCapacity)
+    }
+
+    override fun println(logLevel: Int, tag: String, msg: String) {
+        println(LogEvent(System.currentTimeMillis(), logLevel, tag, msg))
+    }
+
+    override fun println(event: LogEvent) {
+        worker.put(event)
+    }
+
+    override fun drain(timeoutMillis: Long): Boolean {
+        return worker.drain(timeoutMillis)
+    }
+
+    /**
+     * Work in background, collect the logs in buffer, and write them out.
+     */
+    private inner class Worker(queueCapacity: Int) : QueueWorker<LogEvent>(
+        "ZLog-AsyncConsolePrinter", queueCapacity, drainable = this@AsyncConsolePrinter
+    ) {
+
+        private val buffer = StringBuilder(bufferSize + INITIAL_EXTRA_CAPACITY)
+
+        private val encoder: CharsetEncoder = Charsets.UTF_8.newEncoder()
+
+        /**
+         * Large enough for a full buffer of any chars, so it's written with a single write.
+         */
+        private val bytes = ByteBuffer.allocate((bufferSize * encoder.maxBytesPerChar()).toInt())
+
+        /**
+         * The time when the first log in buffer was collected.
+         */
+        private var bufferStartMillis = 0L
+
+        override fun pollTimeoutMillis(): Long {
+            return if (buffer.isEmpty()) {
+                NO_TIMEOUT
+            } else {
+                maxOf(0, bufferStartMillis + flushIntervalMillis - System.currentTimeMillis())
+            }
+        }
+
+        override fun process(item: LogEvent) {
+            if (buffer.isEmpty()) {
+                bufferStartMillis = System.currentTimeMillis()
+            }
+            val flattener = flattener
+            if (flattener is Flattener3) {
+                item.flattenTo(flattener, buffer)
+            } else {
+                buffer.append(item.flatten(flattener))
+            }
+            buffer.append(LINE_SEPARATOR)
+        }
+
+        override fun afterPoll(flush: Boolean): Boolean {
+            if (buffer.isNotEmpty() && (flush
+                        || buffer.length >= bufferSize
+                        || System.currentTimeMillis() - bufferStartMillis >= flushIntervalMillis)
+            ) {
+                writeOut()
+            }
+            return true
+        }
+
+        /**
+         * Encode the buffer and write it out, with a single write unless a huge log makes the
+         * buffer exceed [bufferSize].
+         */
+        private fun writeOut() {
+            try {
+                val chars = CharBuffer.wrap(buffer)
+                encoder.reset()
+                while (encoder.encode(chars, bytes, true).isOverflow) {
+                    writeBytes()
+                }
+                while (encoder.flush(bytes).isOverflow) {
+                    writeBytes()
+                }
+                writeBytes()
+                output.flush()
+            } catch (e: IOException) {
+                Platform.get().error("Write logs to console failed: $e")
+            } finally {
+                bytes.clear()
+                if (buffer.length > bufferSize * 2) {
+                    // Don't keep a huge buffer for an occasional huge log.
+                    buffer.setLength(bufferSize)
+                    buffer.trimToSize()
+                }
+                buffer.setLength(0)
+            }
+        }
+
+        private fun writeBytes() {
+            output.write(bytes.array(), 0, bytes.position())
+            bytes.clear()
+        }
+    }
+
+    /**
+     * Builder for [AsyncConsolePrinter].
+     */
+    class Builder {
+
+        /**
+         * The flattener when print a log.
+         */
+        internal var flattener: Flattener2 = DefaultsFactory.createFlattener2()
+
+        /**
+         * The output stream, null to use [FileDescriptor.out].
+         */
+        internal var output: OutputStream? = null
+
+        internal var bufferSize = DEFAULT_BUFFER_SIZE
+
+        internal var flushIntervalMillis = DEFAULT_FLUSH_INTERVAL_MILLIS
+
+        internal var queueCapacity = DEFAULT_QUEUE_CAPACITY
+
+        /**
+         * Set the flattener when print a log.
+         *
+         * @param flattener the flattener when print a log
+         * @return the builder
+         */
+        fun flattener(flattener: Flattener2): Builder {
+            this.flattener = flattener
+            return this
+        }
+
+        /**
+         * Set the output stream to write logs to, default the standard output.
+         *
+         * @param output the output stream
+         * @return the builder
+         */
+        fun output(output: OutputStream): Builder {
+            this.output = output
+            return this
+        }
+
+        /**
+         * Set the number of chars collected before writing them out, default 64K.
+         *
+         * @param bufferSize the number of chars
+         * @return the builder
+         */
+        fun bufferSize(bufferSize: Int): Builder {
+            require(bufferSize > 0) { "bufferSize should be positive" }
+            this.bufferSize = bufferSize
+            return this
+        }
+
+        /**
+         * Set the max time a log waits in buffer before written out, default 100 milliseconds.
+         *
+         * @param flushIntervalMillis the max waiting time, in milliseconds
+         * @return the builder
+         */
+        fun flushIntervalMillis(flushIntervalMillis: Long): Builder {
+            require(flushIntervalMillis >= 0) { "flushIntervalMillis should not be negative" }
+            this.flushIntervalMillis = flushIntervalMillis
+            return this
+        }
+
+        /**
+         * Set the max number of logs waiting for the background thread, logging threads block
+         * when exceeded, default 10000.
+         *
+         * @param queueCapacity the max number of waiting logs
+         * @return the builder
+         */
+        fun queueCapacity(queueCapacity: Int): Builder {
+            require(queueCapacity > 0) { "queueCapacity should be positive" }
+            this.queueCapacity = queueCapacity
+            return this
+        }
+
+        /**
+         * Build configured [AsyncConsolePrinter] object.
+         *
+         * @return the built configured [AsyncConsolePrinter] object
+         */
+        fun build(): AsyncConsolePrinter {
+            return AsyncConsolePrinter(this)
+        }
+    }
+
+    companion object {
+
+        private val LINE_SEPARATOR = System.getProperty("line.separator") ?: "\n"
+
+        private const val DEFAULT_BUFFER_SIZE = 64 * 1024
+
+        private const val DEFAULT_FLUSH_INTERVAL_MILLIS = 100L
+
+        private const val DEFAULT_QUEUE_CAPACITY = 10000
+
+        /**
+         * Room for the last log which makes the buffer full.
+         */
+        private const val INITIAL_EXTRA_CAPACITY = 1024
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.printer
+
+import com.cl.zlog.LogEvent
+import com.cl.zlog.LogLevel
+import com.cl.zlog.internal.printer.PrinterCompat
+
+/**
+ * A [Printer] which only prints the important logs, but keeps the context of them.
+ *
+ * Logs below the trigger level are not printed, they are just kept in a small in-memory window,
+ * one window for each tag or each thread. When a log at or above the trigger level comes, the
+ * logs in its window are printed before it, so you can see what happened before an error, without
+ * writing all the verbose logs to the delegate printer, which is normally a [com.cl.zlog.printer.file.FilePrinter].
+ *
+ * The delegate printer receives the buffered logs with their original time if it is an
+ * [EventPrinter].
+ *
+ * Use the [Builder] to construct a [BacktracePrinter] object.
+ *
+ * @since 2.1.0
+ */
+class BacktracePrinter internal constructor(builder: Builder) : EventPrinter {
+
+    /**
+     * The printer which really prints the logs.
+     */
+    private val delegate: Printer = builder.delegate
+
+    /**
+     * The logs at or above this level are printed, and trigger the printing of buffered logs.
+     */
+    private val triggerLevel: Int = builder.triggerLevel
+
+    /**
+     * The max number of logs kept in each window.
+     */
+    private val maxRecords: Int = builder.maxRecords
+
+    /**
+     * The max age of logs kept in each window, 0 if no limitation.
+     */
+    private val maxAgeMillis: Long = builder.maxAgeMillis
+
+    /**
+     * How the logs are grouped into windows, [GROUP_BY_TAG] or [GROUP_BY_THREAD].
+     */
+    private val groupBy: Int = builder.groupBy
+
+    /**
+     * The max number of windows.
+     */
+    private val maxWindows: Int = builder.maxWindows
+
+    /**
+     * All the windows, the least recently used window is dropped when there are too many windows.
+     */
+    private val windows: LinkedHashMap<Any, ArrayDeque<LogEvent>> =
+        object : LinkedHashMap<Any, ArrayDeque<LogEvent>>(16, 0.75f, true) {
+            override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Any, ArrayDeque<LogEvent>>): Boolean {
+                return size > maxWindows
+            }
+        }
+
+    override fun println(logLevel: Int, tag: String, msg: String) {
+        println(LogEvent(System.currentTimeMillis(), logLevel, tag, msg))
+    }
+
+    override fun println(event: LogEvent) {
+        val key: Any = if (groupBy == GROUP_BY_THREAD) Thread.currentThread().id else event.tag
+        if (event.level < triggerLevel) {
+            keep(key, event)
+            return
+        }
+        val backtrace = take(key, event.timeMillis)
+        if (backtrace != null) {
+            for (log in backtrace) {
+                PrinterCompat.println(delegate, log)
+            }
+        }
+        PrinterCompat.println(delegate, event)
+    }
+
+    /**
+     * Keep the log in its window, the oldest logs are dropped if the window is full or expired.
+     */
+    private fun keep(key: Any, event: LogEvent) {
+        synchronized(windows) {
+            val window = windows.getOrPut(key) { ArrayDeque() }
+            while (window.size >= maxRecords) {
+                window.removeFirst()
+            }
+            dropExpired(window, event.timeMillis)
+            window.addLast(event)
+        }
+    }
+
+    /**
+     * Take all the logs out of the window, the expired logs are ignored.
+     *
+     * @return the logs in the window, or null if no log
+     */
+    private fun take(key: Any, timeMillis: Long): List<LogEvent>? {
+        synchronized(windows) {
+            val window = windows.remove(key) ?: return null
+            dropExpired(window, timeMillis)
+            return if (window.isEmpty()) null else window
+        }
+    }
+
+    private fun dropExpired(window: ArrayDeque<LogEvent>, timeMillis: Long) {
+        if (maxAgeMillis <= 0) {
+            return
+        }
+        while (window.isNotEmpty() && timeMillis - window.first().timeMillis > maxAgeMillis) {
+            window.removeFirst()
+        }
+    }
+
+    /**
+     * Builder for [BacktracePrinter].
+     */
+    class Builder(
+        /**
+         * The printer which really prints the logs.
+         */
+        internal val delegate: Printer
+    ) {
+
+        internal var triggerLevel: Int = LogLevel.ERROR
+
+        internal var maxRecords: Int = DEFAULT_MAX_RECORDS
+
+        internal var maxAgeMillis: Long = DEFAULT_MAX_AGE_MILLIS
+
+        internal var groupBy: Int = GROUP_BY_TAG
+
+        internal var maxWindows: Int = DEFAULT_MAX_WINDOWS
+
+        /**
+         * Set the trigger level, logs at or above this level are printed, and the logs buffered
+         * before them are printed first. [LogLevel.ERROR] by default.
+         *
+         * @param triggerLevel the trigger level
+         * @return the builder
+         */
+        fun triggerLevel(triggerLevel: Int): Builder {
+            this.triggerLevel = triggerLevel
+            return this
+        }
+
+        /**
+         * Set the max number of logs kept in each window, 64 by default.
+         *
+         * @param maxRecords the max number of logs kept in each window
+         * @return the builder
+         */
+        fun maxRecords(maxRecords: Int): Builder {
+            require(maxRecords > 0) { "Max records should be greater than 0" }
+            this.maxRecords = maxRecords
+            return this
+        }
+
+        /**
+         * Set the max age of logs kept in each window, older logs are dropped, 0 if no
+         * limitation. 30 seconds by default.
+         *
+         * @param maxAgeMillis the max age of logs in milliseconds
+         * @return the builder
+         */
+        fun maxAgeMillis(maxAgeMillis: Long): Builder {
+            this.maxAgeMillis = maxAgeMillis
+            return this
+        }
+
+        /**
+         * Set how the logs are grouped into windows, [GROUP_BY_TAG] by default.
+         *
+         * @param groupBy [GROUP_BY_TAG] or [GROUP_BY_THREAD]
+         * @return the builder
+         */
+        fun groupBy(groupBy: Int): Builder {
+            require(groupBy == GROUP_BY_TAG || groupBy == GROUP_BY_THREAD) { "Unknown group: $groupBy" }
+            this.groupBy = groupBy
+            return this
+        }
+
+        /**
+         * Set the max number of windows, the least recently used window is dropped when exceeded.
+         *
+         * @param maxWindows the max number of windows
+         * @return the builder
+         */
+        fun maxWindows(maxWindows: Int): Builder {
+            require(maxWindows > 0) { "Max windows should be greater than 0" }
+            this.maxWindows = maxWindows
+            return this
+        }
+
+        /**
+         * Build configured [BacktracePrinter] object.
+         *
+         * @return the built configured [BacktracePrinter] object
+         */
+        fun build(): BacktracePrinter {
+            return BacktracePrinter(this)
+        }
+    }
+
+    companion object {
+
+        /**
+         * Each tag has its own window.
+         */
+        const val GROUP_BY_TAG = 0
+
+        /**
+         * Each thread has its own window.
+         */
+        const val GROUP_BY_THREAD = 1
+
+        private const val DEFAULT_MAX_RECORDS = 64
+
+        private const val DEFAULT_MAX_AGE_MILLIS = 30 * 1000L
+
+        private const val DEFAULT_MAX_WINDOWS = 64
+    }
+}
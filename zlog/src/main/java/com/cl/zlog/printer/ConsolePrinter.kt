@@ -22,6 +22,9 @@ import com.cl.zlog.flattener.Flattener
 /**
  * Log [Printer] using `System.out.println(String)`.
  *
+ * Every log takes the lock of [System.out] and flushes it, use [AsyncConsolePrinter] instead if
+ * logs are printed heavily from many threads.
+ *
  * @since 1.3.0
  */
 open class ConsolePrinter @JvmOverloads constructor(
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.printer
+
+/**
+ * Something which prints logs asynchronously, and can be asked to finish printing all the
+ * pending logs, e.g. before the process dies.
+ *
+ * @see com.cl.zlog.ZLog.drain
+ * @since 2.1.0
+ */
+interface Drainable {
+
+    /**
+     * Print and flush all the logs pending at the time of calling, block until done or timeout.
+     *
+     * @param timeoutMillis the max time to wait, in milliseconds
+     * @return true if all the pending logs are printed, false if timeout
+     */
+    fun drain(timeoutMillis: Long): Boolean
+}
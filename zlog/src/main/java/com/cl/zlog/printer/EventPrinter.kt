@@ -0,0 +1,35 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.printer
+
+import com.cl.zlog.LogEvent
+
+/**
+ * A [Printer] which can also print a whole [LogEvent], so the original time of the log is kept
+ * even if the log is printed later, e.g. by a printer which buffers logs.
+ *
+ * @since 2.1.0
+ */
+interface EventPrinter : Printer {
+
+    /**
+     * Print the log event in new line.
+     *
+     * @param event the log event to print
+     */
+    fun println(event: LogEvent)
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.printer
+
+import com.cl.zlog.LogEvent
+import com.cl.zlog.internal.printer.PrinterCompat
+
+/**
+ * A [Printer] which passes only the logs with a minimum level and an accepted tag to another
+ * printer, e.g. to print only the warnings and errors to a remote server.
+ *
+ * Since it is a [SelectivePrinter], the logs no printer wants are not even formatted.
+ *
+ * @since 2.1.0
+ */
+class FilterPrinter @JvmOverloads constructor(
+    /**
+     * The printer to print the accepted logs.
+     */
+    private val printer: Printer,
+    /**
+     * The minimum level of accepted logs.
+     */
+    private val minLevel: Int,
+    /**
+     * The filter of tags, null to accept all tags.
+     */
+    private val tagFilter: TagFilter? = null
+) : SelectivePrinter, EventPrinter, Drainable {
+
+    override fun isLoggable(logLevel: Int, tag: String): Boolean {
+        return logLevel >= minLevel
+                && (tagFilter == null || tagFilter.accept(tag))
+                && (printer !is SelectivePrinter || printer.isLoggable(logLevel, tag))
+    }
+
+    override fun println(logLevel: Int, tag: String, msg: String) {
+        if (isLoggable(logLevel, tag)) {
+            printer.println(logLevel, tag, msg)
+        }
+    }
+
+    override fun println(event: LogEvent) {
+        if (isLoggable(event.level, event.tag)) {
+            PrinterCompat.println(printer, event)
+        }
+    }
+
+    override fun drain(timeoutMillis: Long): Boolean {
+        return (printer as? Drainable)?.drain(timeoutMillis) ?: true
+    }
+
+    /**
+     * Decide whether the logs with a tag are accepted.
+     */
+    fun interface TagFilter {
+
+        /**
+         * Whether the logs with the tag are accepted.
+         *
+         * @param tag the tag of log
+         * @return true if accepted
+         */
+        fun accept(tag: String): Boolean
+    }
+}
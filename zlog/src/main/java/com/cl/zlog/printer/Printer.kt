@@ -26,7 +26,7 @@ import com.cl.zlog.printer.file.FilePrinter
  * [AndroidPrinter], print log to android shell terminal.
  * [ConsolePrinter], print log to console via System.out.
  * [FilePrinter], print log to file system.
- * [RemotePrinter], print log to remote server, this is empty implementation yet.
+ * [RemotePrinter], print log to remote server in batches.
  */
 interface Printer {
 
@@ -16,14 +16,67 @@
 
 package com.cl.zlog.printer;
 
+import com.cl.zlog.LogEvent;
+import com.cl.zlog.internal.Platform;
+import com.cl.zlog.internal.printer.DrainableRegistry;
+import com.cl.zlog.internal.printer.PrinterCompat;
+import com.cl.zlog.internal.printer.QueueWorker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Represents a group of Printers that should used to print logs in the same time, each printer
  * may probably print the log to different place.
+ * <p>
+ * By default, the printers are called in turn on the logging thread. In fan-out mode, see
+ * {@link Builder#fanOut()}, each printer gets its own bounded queue and thread, called a lane,
+ * so a slow printer never holds up the others or the logging thread. Each log is published as a
+ * single immutable {@link LogEvent} shared by all lanes.
+ * <p>
+ * A log is only passed to the printers which want it, see {@link SelectivePrinter}.
  */
-public class PrinterSet implements Printer {
+public class PrinterSet implements EventPrinter, SelectivePrinter, Drainable {
+
+  /**
+   * Block the logging thread until there is room in the lane.
+   *
+   * @since 2.1.0
+   */
+  public static final int OVERFLOW_BLOCK = 0;
+
+  /**
+   * Drop the new log if the lane is full.
+   *
+   * @since 2.1.0
+   */
+  public static final int OVERFLOW_DROP_NEWEST = 1;
+
+  /**
+   * Drop the oldest log in the lane to make room for the new one.
+   *
+   * @since 2.1.0
+   */
+  public static final int OVERFLOW_DROP_OLDEST = 2;
+
+  private static final int DEFAULT_LANE_CAPACITY = 1024;
+
+  private static final long DEFAULT_SLOW_THRESHOLD_MILLIS = 200;
+
+  private static final int DEFAULT_TRIP_COUNT = 5;
+
+  private static final long DEFAULT_COOLDOWN_MILLIS = 10 * 1000;
 
   private Printer[] printers;
 
+  /**
+   * The lanes in fan-out mode, null otherwise.
+   */
+  private final Lane[] lanes;
+
   /**
    * Constructor, pass printers in and will use all these printers to print the same logs.
    *
@@ -31,12 +84,381 @@ public class PrinterSet implements Printer {
    */
   public PrinterSet(Printer... printers) {
     this.printers = printers;
+    this.lanes = null;
+  }
+
+  private PrinterSet(Builder builder) {
+    int size = builder.printers.size();
+    this.printers = builder.printers.toArray(new Printer[size]);
+    if (builder.fanOut) {
+      lanes = new Lane[size];
+      for (int i = 0; i < size; i++) {
+        lanes[i] = new Lane(i, printers[i], builder.capacities.get(i),
+            builder.overflowPolicies.get(i), builder);
+      }
+      DrainableRegistry.register(this);
+    } else {
+      lanes = null;
+    }
+  }
+
+  /**
+   * Whether any printer wants the log.
+   */
+  @Override
+  public boolean isLoggable(int logLevel, String tag) {
+    for (Printer printer : printers) {
+      if (isLoggable(printer, logLevel, tag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isLoggable(Printer printer, int logLevel, String tag) {
+    return !(printer instanceof SelectivePrinter)
+        || ((SelectivePrinter) printer).isLoggable(logLevel, tag);
   }
 
   @Override
   public void println(int logLevel, String tag, String msg) {
+    if (lanes != null) {
+      println(new LogEvent(System.currentTimeMillis(), logLevel, tag, msg));
+      return;
+    }
     for (Printer printer : printers) {
-      printer.println(logLevel, tag, msg);
+      if (isLoggable(printer, logLevel, tag)) {
+        printer.println(logLevel, tag, msg);
+      }
+    }
+  }
+
+  @Override
+  public void println(LogEvent event) {
+    if (lanes != null) {
+      for (Lane lane : lanes) {
+        if (isLoggable(lane.printer, event.level, event.tag)) {
+          lane.enqueue(event);
+        }
+      }
+      return;
+    }
+    for (Printer printer : printers) {
+      if (isLoggable(printer, event.level, event.tag)) {
+        PrinterCompat.println(printer, event);
+      }
+    }
+  }
+
+  /**
+   * Wait until the logs pending in lanes are printed, and drain the {@link Drainable} printers.
+   */
+  @Override
+  public boolean drain(long timeoutMillis) {
+    long deadline = System.currentTimeMillis() + timeoutMillis;
+    boolean drained = true;
+    for (int i = 0; i < printers.length; i++) {
+      long remaining = deadline - System.currentTimeMillis();
+      if (lanes != null && (remaining <= 0 || !lanes[i].drain(remaining))) {
+        drained = false;
+        continue;
+      }
+      if (printers[i] instanceof Drainable) {
+        remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0 || !((Drainable) printers[i]).drain(remaining)) {
+          drained = false;
+        }
+      }
+    }
+    return drained;
+  }
+
+  /**
+   * Get the statistics of each lane, in the order of printers.
+   *
+   * @return the statistics, empty if not in fan-out mode
+   * @since 2.1.0
+   */
+  public List<LaneStats> getLaneStats() {
+    if (lanes == null) {
+      return Collections.emptyList();
+    }
+    List<LaneStats> stats = new ArrayList<>(lanes.length);
+    for (Lane lane : lanes) {
+      stats.add(lane.stats());
+    }
+    return stats;
+  }
+
+  /**
+   * Statistics of a lane in fan-out mode.
+   *
+   * @since 2.1.0
+   */
+  public static final class LaneStats {
+
+    /**
+     * The printer of the lane.
+     */
+    public final Printer printer;
+
+    /**
+     * The number of logs printed.
+     */
+    public final long printedCount;
+
+    /**
+     * The number of logs dropped because the lane was full.
+     */
+    public final long droppedCount;
+
+    /**
+     * The number of logs dropped because the circuit breaker was open.
+     */
+    public final long shedCount;
+
+    /**
+     * The total time spent in printing, in nanoseconds.
+     */
+    public final long totalLatencyNanos;
+
+    /**
+     * The max time spent in printing a single log, in nanoseconds.
+     */
+    public final long maxLatencyNanos;
+
+    /**
+     * Whether the circuit breaker is open, i.e. new logs are dropped.
+     */
+    public final boolean circuitOpen;
+
+    LaneStats(Printer printer, long printedCount, long droppedCount, long shedCount,
+              long totalLatencyNanos, long maxLatencyNanos, boolean circuitOpen) {
+      this.printer = printer;
+      this.printedCount = printedCount;
+      this.droppedCount = droppedCount;
+      this.shedCount = shedCount;
+      this.totalLatencyNanos = totalLatencyNanos;
+      this.maxLatencyNanos = maxLatencyNanos;
+      this.circuitOpen = circuitOpen;
+    }
+  }
+
+  /**
+   * A bounded queue and a thread printing logs with a single printer.
+   * <p>
+   * The lane also works as a circuit breaker: if the printer is slow for several logs in a row,
+   * the circuit opens and new logs are dropped for a while, then the next log is let through as
+   * a trial, the circuit closes if it's printed in time, and opens again otherwise.
+   */
+  private static final class Lane extends QueueWorker<LogEvent> {
+
+    private final Printer printer;
+
+    private final int overflowPolicy;
+
+    private final long slowThresholdNanos;
+
+    private final int tripCount;
+
+    private final long cooldownMillis;
+
+    /**
+     * The time until which new logs are dropped, 0 if the circuit is closed.
+     */
+    private volatile long openUntilMillis;
+
+    /**
+     * Whether the circuit has been opened, and the next log is a trial, only used in lane thread.
+     */
+    private boolean halfOpen;
+
+    /**
+     * The number of slow logs in a row, only used in lane thread.
+     */
+    private int slowCount;
+
+    private final AtomicLong printedCount = new AtomicLong();
+
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private final AtomicLong shedCount = new AtomicLong();
+
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+
+    private volatile long maxLatencyNanos;
+
+    Lane(int index, Printer printer, int capacity, int overflowPolicy, Builder builder) {
+      super("ZLog-PrinterSet-" + index, capacity, true, null);
+      this.printer = printer;
+      this.overflowPolicy = overflowPolicy;
+      this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(builder.slowThresholdMillis);
+      this.tripCount = builder.tripCount;
+      this.cooldownMillis = builder.cooldownMillis;
+    }
+
+    void enqueue(LogEvent event) {
+      long openUntil = openUntilMillis;
+      if (openUntil != 0 && System.currentTimeMillis() < openUntil) {
+        shedCount.incrementAndGet();
+        return;
+      }
+      switch (overflowPolicy) {
+        case OVERFLOW_BLOCK:
+          if (!put(event)) {
+            droppedCount.incrementAndGet();
+          }
+          break;
+        case OVERFLOW_DROP_OLDEST:
+          while (!offer(event)) {
+            if (evictOldest()) {
+              droppedCount.incrementAndGet();
+            }
+          }
+          break;
+        default:
+          if (!offer(event)) {
+            droppedCount.incrementAndGet();
+          }
+          break;
+      }
+    }
+
+    @Override
+    protected void process(LogEvent event) {
+      long start = System.nanoTime();
+      try {
+        PrinterCompat.println(printer, event);
+      } catch (Throwable t) {
+        Platform.get().error("Printer " + printer + " failed: " + t);
+      }
+      record(System.nanoTime() - start);
+      printedCount.incrementAndGet();
+    }
+
+    private void record(long latencyNanos) {
+      totalLatencyNanos.addAndGet(latencyNanos);
+      if (latencyNanos > maxLatencyNanos) {
+        maxLatencyNanos = latencyNanos;
+      }
+      if (latencyNanos <= slowThresholdNanos) {
+        slowCount = 0;
+        if (halfOpen) {
+          halfOpen = false;
+          openUntilMillis = 0;
+        }
+        return;
+      }
+      slowCount++;
+      if (halfOpen || slowCount >= tripCount) {
+        slowCount = 0;
+        halfOpen = true;
+        openUntilMillis = System.currentTimeMillis() + cooldownMillis;
+        Platform.get().warn("Printer " + printer + " is too slow, drop logs for "
+            + cooldownMillis + "ms");
+      }
+    }
+
+    LaneStats stats() {
+      long printed = printedCount.get();
+      long openUntil = openUntilMillis;
+      return new LaneStats(printer, printed, droppedCount.get(), shedCount.get(),
+          totalLatencyNanos.get(), maxLatencyNanos,
+          openUntil != 0 && System.currentTimeMillis() < openUntil);
+    }
+  }
+
+  /**
+   * Builder for {@link PrinterSet}.
+   *
+   * @since 2.1.0
+   */
+  public static class Builder {
+
+    private final List<Printer> printers = new ArrayList<>();
+
+    private final List<Integer> capacities = new ArrayList<>();
+
+    private final List<Integer> overflowPolicies = new ArrayList<>();
+
+    private boolean fanOut;
+
+    private long slowThresholdMillis = DEFAULT_SLOW_THRESHOLD_MILLIS;
+
+    private int tripCount = DEFAULT_TRIP_COUNT;
+
+    private long cooldownMillis = DEFAULT_COOLDOWN_MILLIS;
+
+    /**
+     * Add a printer, its lane holds at most 1024 logs and drops new logs when full.
+     *
+     * @param printer the printer to add
+     * @return the builder
+     */
+    public Builder add(Printer printer) {
+      return add(printer, DEFAULT_LANE_CAPACITY, OVERFLOW_DROP_NEWEST);
+    }
+
+    /**
+     * Add a printer, with the capacity and overflow policy of its lane in fan-out mode.
+     *
+     * @param printer        the printer to add
+     * @param capacity       the max number of logs waiting in the lane
+     * @param overflowPolicy what to do when the lane is full, one of {@link #OVERFLOW_BLOCK},
+     *                       {@link #OVERFLOW_DROP_NEWEST} and {@link #OVERFLOW_DROP_OLDEST}
+     * @return the builder
+     */
+    public Builder add(Printer printer, int capacity, int overflowPolicy) {
+      if (capacity <= 0) {
+        throw new IllegalArgumentException("capacity should be positive");
+      }
+      if (overflowPolicy < OVERFLOW_BLOCK || overflowPolicy > OVERFLOW_DROP_OLDEST) {
+        throw new IllegalArgumentException("Unknown overflow policy: " + overflowPolicy);
+      }
+      printers.add(printer);
+      capacities.add(capacity);
+      overflowPolicies.add(overflowPolicy);
+      return this;
+    }
+
+    /**
+     * Enable fan-out mode, each printer prints in its own lane.
+     *
+     * @return the builder
+     */
+    public Builder fanOut() {
+      this.fanOut = true;
+      return this;
+    }
+
+    /**
+     * Set the circuit breaker of lanes, a printer is considered persistently slow if
+     * {@code tripCount} logs in a row take longer than {@code slowThresholdMillis} to print,
+     * then new logs to it are dropped for {@code cooldownMillis}. By default, 5 logs in a row
+     * slower than 200 milliseconds open the circuit for 10 seconds.
+     *
+     * @param slowThresholdMillis the time to print a log above which the log is slow
+     * @param tripCount           the number of slow logs in a row to open the circuit
+     * @param cooldownMillis      the time to drop logs after the circuit opens
+     * @return the builder
+     */
+    public Builder circuitBreaker(long slowThresholdMillis, int tripCount, long cooldownMillis) {
+      if (slowThresholdMillis < 0 || tripCount <= 0 || cooldownMillis < 0) {
+        throw new IllegalArgumentException("Illegal circuit breaker");
+      }
+      this.slowThresholdMillis = slowThresholdMillis;
+      this.tripCount = tripCount;
+      this.cooldownMillis = cooldownMillis;
+      return this;
+    }
+
+    /**
+     * Build configured {@link PrinterSet} object.
+     *
+     * @return the built configured {@link PrinterSet} object
+     */
+    public PrinterSet build() {
+      return new PrinterSet(this);
     }
   }
 }
@@ -16,16 +16,415 @@
 
 package com.cl.zlog.printer
 
+import com.cl.zlog.LogEvent
+import com.cl.zlog.flattener.Flattener2
+import com.cl.zlog.internal.DefaultsFactory
+import com.cl.zlog.internal.Platform
+import com.cl.zlog.internal.printer.QueueWorker
+import com.cl.zlog.printer.remote.FileSpool
+import com.cl.zlog.printer.remote.HttpTransport
+import com.cl.zlog.printer.remote.MappedQueue
+import com.cl.zlog.printer.remote.MemorySpool
+import com.cl.zlog.printer.remote.SocketTransport
+import com.cl.zlog.printer.remote.Spool
+import com.cl.zlog.printer.remote.Transport
+import java.io.ByteArrayOutputStream
+import java.io.File
+import java.util.concurrent.atomic.AtomicLong
+import java.util.zip.GZIPOutputStream
+
 /**
- * Log [Printer] which should print the log to remote server.
+ * Log [Printer] which sends the logs to remote server.
+ *
+ * Logs are flattened and collected into batches in a background thread, a batch is sealed when
+ * it reaches [Builder.batchSize] logs or [Builder.maxBatchBytes] bytes, or has been waiting for
+ * [Builder.flushIntervalMillis]. Sealed batches are gzip compressed and appended to a [Spool]
+ * first, and then sent by the [Transport] one by one, so the batches are kept on disk while the
+ * network is down, and retried with exponential backoff.
+ *
+ * Logging threads never block on the network or the disk, if the background thread can not keep
+ * up, new logs are dropped and counted in [droppedCount].
  *
- * This is just a empty implementation telling you that you can do
- * such thing, you can override [println] and sending the log by your
- * implementation.
+ * Use the [Builder] to construct a [RemotePrinter] object.
+ *
+ * @see HttpTransport
+ * @see SocketTransport
  */
-class RemotePrinter : Printer {
+class RemotePrinter internal constructor(builder: Builder) : EventPrinter, Drainable {
+
+    /**
+     * The folder of the default spool, not used if a spool is specified.
+     */
+    private val spoolFolderPath: String
+
+    /**
+     * The transport to send batches.
+     */
+    private val transport: Transport
+
+    /**
+     * The flattener when print a log.
+     */
+    private val flattener: Flattener2
+
+    private val batchSize: Int
+
+    private val maxBatchBytes: Int
+
+    private val flushIntervalMillis: Long
+
+    private val initialBackoffMillis: Long
+
+    private val maxBackoffMillis: Long
+
+    private val queueCapacity: Int
+
+    private var spool: Spool?
+
+    private val droppedCount = AtomicLong()
+
+    @Volatile
+    private var worker: Worker? = null
+
+    init {
+        spoolFolderPath = builder.spoolFolderPath
+        transport = builder.transport
+        flattener = builder.flattener
+        batchSize = builder.batchSize
+        maxBatchBytes = builder.maxBatchBytes
+        flushIntervalMillis = builder.flushIntervalMillis
+        initialBackoffMillis = builder.initialBackoffMillis
+        maxBackoffMillis = builder.maxBackoffMillis
+        queueCapacity = builder.queueCapacity
+        spool = builder.spool
+
+        worker = Worker()
+    }
 
     override fun println(logLevel: Int, tag: String, msg: String) {
-        // TODO: Send the log to your server.
+        println(LogEvent(System.currentTimeMillis(), logLevel, tag, msg))
+    }
+
+    override fun println(event: LogEvent) {
+        worker?.let { w ->
+            if (!w.offer(event)) {
+                droppedCount.incrementAndGet()
+            }
+        }
+    }
+
+    /**
+     * Send all the pending logs, including the ones spooled before.
+     *
+     * @return true if all the logs are sent, false if timeout or failed to send, in which case
+     * the logs are kept in spool and sent later
+     */
+    override fun drain(timeoutMillis: Long): Boolean {
+        return worker?.drain(timeoutMillis) ?: true
+    }
+
+    /**
+     * Get the number of logs dropped because the background thread can not keep up.
+     *
+     * @return the number of dropped logs
+     * @since 2.1.0
+     */
+    fun droppedCount(): Long {
+        return droppedCount.get()
+    }
+
+    /**
+     * Open the default spool, fallback to a [MemorySpool] if failed.
+     */
+    private fun openSpool(): Spool {
+        spool?.let { return it }
+        val spool = try {
+            FileSpool(File(spoolFolderPath))
+        } catch (e: Exception) {
+            Platform.get().error("Open spool in $spoolFolderPath failed, logs will be kept in memory: $e")
+            MemorySpool()
+        }
+        this.spool = spool
+        return spool
+    }
+
+    /**
+     * Work in background, collect the logs into batches, and send the batches.
+     */
+    private inner class Worker : QueueWorker<LogEvent>(
+        "ZLog-RemotePrinter", queueCapacity, drainable = this@RemotePrinter
+    ) {
+
+        /**
+         * Opened in the worker thread, as it may touch the disk.
+         */
+        private val spool: Spool by lazy(LazyThreadSafetyMode.NONE) { openSpool() }
+
+        /**
+         * The uncompressed logs of current batch.
+         */
+        private val batch = ByteArrayOutputStream(INITIAL_BATCH_BUFFER_SIZE)
+
+        private var batchCount = 0
+
+        /**
+         * The time when the first log of current batch was collected.
+         */
+        private var batchStartMillis = 0L
+
+        private var backoffMillis = initialBackoffMillis
+
+        /**
+         * The time before which no batch should be sent, because of the last failure.
+         */
+        private var nextSendMillis = 0L
+
+        override fun pollTimeoutMillis(): Long {
+            return pollTimeoutMillis(spool)
+        }
+
+        override fun process(item: LogEvent) {
+            collect(item, spool)
+        }
+
+        /**
+         * Seal current batch if it has been waiting for long, and send the spooled batches unless
+         * backing off, or immediately if flushing.
+         *
+         * @return whether the spool is empty after flushing, i.e. all the logs are sent
+         */
+        override fun afterPoll(flush: Boolean): Boolean {
+            val spool = spool
+            val now = System.currentTimeMillis()
+            if (batchCount > 0 && (flush || now - batchStartMillis >= flushIntervalMillis)) {
+                seal(spool)
+            }
+            if (flush) {
+                // Retry now, no matter how long the backoff is.
+                nextSendMillis = 0
+            }
+            if (!spool.isEmpty() && now >= nextSendMillis) {
+                sendSpooled(spool)
+            }
+            return spool.isEmpty()
+        }
+
+        /**
+         * How long to wait for the next log, before sealing current batch or retrying.
+         */
+        private fun pollTimeoutMillis(spool: Spool): Long {
+            val now = System.currentTimeMillis()
+            var wakeUp = Long.MAX_VALUE
+            if (batchCount > 0) {
+                wakeUp = batchStartMillis + flushIntervalMillis
+            }
+            if (!spool.isEmpty()) {
+                wakeUp = minOf(wakeUp, nextSendMillis)
+            }
+            return if (wakeUp == Long.MAX_VALUE) NO_TIMEOUT else maxOf(0, wakeUp - now)
+        }
+
+        /**
+         * Flatten the log into current batch, and seal the batch if full.
+         */
+        private fun collect(log: LogEvent, spool: Spool) {
+            val line = log.flatten(flattener)
+            if (batchCount == 0) {
+                batchStartMillis = System.currentTimeMillis()
+            }
+            val bytes = line.toByteArray(Charsets.UTF_8)
+            batch.write(bytes, 0, bytes.size)
+            batch.write('\n'.code)
+            batchCount++
+            if (batchCount >= batchSize || batch.size() >= maxBatchBytes) {
+                seal(spool)
+            }
+        }
+
+        /**
+         * Compress current batch and append it to the spool.
+         */
+        private fun seal(spool: Spool) {
+            val compressed = ByteArrayOutputStream(batch.size() / 4 + 64)
+            try {
+                GZIPOutputStream(compressed).use { batch.writeTo(it) }
+                spool.append(compressed.toByteArray())
+            } catch (e: Exception) {
+                Platform.get().error("Spool logs failed, $batchCount logs dropped: $e")
+            } finally {
+                batch.reset()
+                batchCount = 0
+            }
+        }
+
+        /**
+         * Send the spooled batches in order, until all sent or failed.
+         */
+        private fun sendSpooled(spool: Spool) {
+            try {
+                while (true) {
+                    val record = spool.peek() ?: break
+                    transport.send(record)
+                    spool.remove()
+                }
+                backoffMillis = initialBackoffMillis
+                nextSendMillis = 0
+            } catch (e: Exception) {
+                Platform.get().warn("Send logs failed, retry in $backoffMillis ms: $e")
+                nextSendMillis = System.currentTimeMillis() + backoffMillis
+                backoffMillis = minOf(backoffMillis * 2, maxBackoffMillis)
+            }
+        }
+    }
+
+    /**
+     * Builder for [RemotePrinter].
+     */
+    class Builder(
+        /**
+         * The folder to keep the batches not sent yet.
+         */
+        internal var spoolFolderPath: String,
+
+        /**
+         * The transport to send batches.
+         */
+        internal var transport: Transport
+    ) {
+
+        /**
+         * The flattener when print a log.
+         */
+        internal var flattener: Flattener2 = DefaultsFactory.createFlattener2()
+
+        internal var batchSize = DEFAULT_BATCH_SIZE
+
+        internal var maxBatchBytes = DEFAULT_MAX_BATCH_BYTES
+
+        internal var flushIntervalMillis = DEFAULT_FLUSH_INTERVAL_MILLIS
+
+        internal var initialBackoffMillis = DEFAULT_INITIAL_BACKOFF_MILLIS
+
+        internal var maxBackoffMillis = DEFAULT_MAX_BACKOFF_MILLIS
+
+        internal var queueCapacity = DEFAULT_QUEUE_CAPACITY
+
+        /**
+         * The spool, null to use a [FileSpool] in [spoolFolderPath].
+         */
+        internal var spool: Spool? = null
+
+        /**
+         * Set the flattener when print a log.
+         *
+         * @param flattener the flattener when print a log
+         * @return the builder
+         */
+        fun flattener(flattener: Flattener2): Builder {
+            this.flattener = flattener
+            return this
+        }
+
+        /**
+         * Set the max number of logs in a batch, default 100.
+         *
+         * @param batchSize the max number of logs in a batch
+         * @return the builder
+         */
+        fun batchSize(batchSize: Int): Builder {
+            require(batchSize > 0) { "batchSize should be positive" }
+            this.batchSize = batchSize
+            return this
+        }
+
+        /**
+         * Set the max uncompressed bytes of a batch, default 256K.
+         *
+         * @param maxBatchBytes the max uncompressed bytes of a batch
+         * @return the builder
+         */
+        fun maxBatchBytes(maxBatchBytes: Int): Builder {
+            require(maxBatchBytes > 0) { "maxBatchBytes should be positive" }
+            this.maxBatchBytes = maxBatchBytes
+            return this
+        }
+
+        /**
+         * Set the max time a log waits in a batch before the batch is sent, default 5 seconds.
+         *
+         * @param flushIntervalMillis the max waiting time, in milliseconds
+         * @return the builder
+         */
+        fun flushIntervalMillis(flushIntervalMillis: Long): Builder {
+            require(flushIntervalMillis >= 0) { "flushIntervalMillis should not be negative" }
+            this.flushIntervalMillis = flushIntervalMillis
+            return this
+        }
+
+        /**
+         * Set the backoff of retrying after failed to send, it doubles after each failure, from
+         * [initialMillis] up to [maxMillis], default from 1 second to 5 minutes.
+         *
+         * @param initialMillis the backoff after the first failure, in milliseconds
+         * @param maxMillis     the max backoff, in milliseconds
+         * @return the builder
+         */
+        fun backoff(initialMillis: Long, maxMillis: Long): Builder {
+            require(initialMillis > 0 && maxMillis >= initialMillis) { "Illegal backoff" }
+            this.initialBackoffMillis = initialMillis
+            this.maxBackoffMillis = maxMillis
+            return this
+        }
+
+        /**
+         * Set the max number of logs waiting for the background thread, logs are dropped when
+         * exceeded, default 10000.
+         *
+         * @param queueCapacity the max number of waiting logs
+         * @return the builder
+         */
+        fun queueCapacity(queueCapacity: Int): Builder {
+            require(queueCapacity > 0) { "queueCapacity should be positive" }
+            this.queueCapacity = queueCapacity
+            return this
+        }
+
+        /**
+         * Set the spool to keep the batches not sent yet, default a [FileSpool] in the spool
+         * folder, use a [MappedQueue] if a lot of batches should be kept.
+         *
+         * @param spool the spool
+         * @return the builder
+         */
+        fun spool(spool: Spool): Builder {
+            this.spool = spool
+            return this
+        }
+
+        /**
+         * Build configured [RemotePrinter] object.
+         *
+         * @return the built configured [RemotePrinter] object
+         */
+        fun build(): RemotePrinter {
+            return RemotePrinter(this)
+        }
+    }
+
+    companion object {
+
+        private const val DEFAULT_BATCH_SIZE = 100
+
+        private const val DEFAULT_MAX_BATCH_BYTES = 256 * 1024
+
+        private const val DEFAULT_FLUSH_INTERVAL_MILLIS = 5 * 1000L
+
+        private const val DEFAULT_INITIAL_BACKOFF_MILLIS = 1000L
+
+        private const val DEFAULT_MAX_BACKOFF_MILLIS = 5 * 60 * 1000L
+
+        private const val DEFAULT_QUEUE_CAPACITY = 10000
+
+        private const val INITIAL_BATCH_BUFFER_SIZE = 8 * 1024
     }
-}
\ No newline at end of file
+}
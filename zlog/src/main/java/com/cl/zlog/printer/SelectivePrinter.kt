@@ -0,0 +1,36 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.printer
+
+/**
+ * A [Printer] which only wants some of the logs. It is asked before the log is formatted, so the
+ * formatting work is skipped if no printer wants the log.
+ *
+ * @see FilterPrinter
+ * @since 2.1.0
+ */
+interface SelectivePrinter : Printer {
+
+    /**
+     * Whether the printer wants the log with the level and tag.
+     *
+     * @param logLevel the level of log
+     * @param tag      the tag of log
+     * @return true if the log should be printed, false if it can be skipped
+     */
+    fun isLoggable(logLevel: Int, tag: String): Boolean
+}
@@ -16,12 +16,18 @@
 
 package com.cl.zlog.printer.file
 
+import com.cl.zlog.LogEvent
 import com.cl.zlog.flattener.Flattener
 import com.cl.zlog.flattener.Flattener2
+import com.cl.zlog.flattener.Flattener3
 import com.cl.zlog.internal.DefaultsFactory
 import com.cl.zlog.internal.Platform
+import com.cl.zlog.internal.printer.QueueWorker
+import com.cl.zlog.internal.printer.file.FolderLock
 import com.cl.zlog.internal.printer.file.backup.BackupStrategyWrapper
 import com.cl.zlog.internal.printer.file.backup.BackupUtil
+import com.cl.zlog.printer.Drainable
+import com.cl.zlog.printer.EventPrinter
 import com.cl.zlog.printer.Printer
 import com.cl.zlog.printer.file.backup.BackupStrategy
 import com.cl.zlog.printer.file.backup.BackupStrategy2
@@ -29,15 +35,16 @@ import com.cl.zlog.printer.file.clean.CleanStrategy
 import com.cl.zlog.printer.file.naming.FileNameGenerator
 import com.cl.zlog.printer.file.writer.Writer
 import java.io.File
-import java.util.concurrent.BlockingQueue
-import java.util.concurrent.LinkedBlockingQueue
 
 /**
  * Log [Printer] using file system. When print a log, it will print it to the specified file.
  *
+ * If several processes log to the same folder, enable [Builder.multiProcess], then each process
+ * writes its own segment files, and [MergedLogReader] can be used to read all of them as one log.
+ *
  * Use the [Builder] to construct a [FilePrinter] object.
  */
-class FilePrinter internal constructor(builder: Builder) : Printer {
+class FilePrinter internal constructor(builder: Builder) : EventPrinter, Drainable {
 
     /**
      * The folder path of log file.
@@ -69,6 +76,21 @@ class FilePrinter internal constructor(builder: Builder) : Printer {
      */
     private var writer: Writer
 
+    /**
+     * The tag of current process appended to file names, null if not in multi-process mode.
+     */
+    private val segmentTag: String?
+
+    /**
+     * The lock held when backing up or cleaning log files, null if not in multi-process mode.
+     */
+    private val folderLock: FolderLock?
+
+    /**
+     * The reusable buffer to flatten logs into, if the flattener is a [Flattener3].
+     */
+    private var flattenBuffer = StringBuilder(INITIAL_FLATTEN_BUFFER_CAPACITY)
+
     @Volatile
     private var worker: Worker? = null
 
@@ -79,6 +101,8 @@ class FilePrinter internal constructor(builder: Builder) : Printer {
         cleanStrategy = builder.cleanStrategy
         flattener = builder.flattener
         writer = builder.writer
+        segmentTag = builder.processName?.let { segmentTagOf(it) }
+        folderLock = if (segmentTag != null) FolderLock(File(folderPath)) else null
 
         if (USE_WORKER) {
             worker = Worker()
@@ -98,34 +122,39 @@ class FilePrinter internal constructor(builder: Builder) : Printer {
     }
 
     override fun println(logLevel: Int, tag: String, msg: String) {
-        val timeMillis = System.currentTimeMillis()
+        println(LogEvent(System.currentTimeMillis(), logLevel, tag, msg))
+    }
+
+    override fun println(event: LogEvent) {
         if (USE_WORKER) {
-            worker?.let { w ->
-                if (!w.isStarted()) {
-                    w.start()
-                }
-                w.enqueue(LogItem(timeMillis, logLevel, tag, msg))
-            }
+            worker?.put(event)
         } else {
-            doPrintln(timeMillis, logLevel, tag, msg)
+            doPrintln(event)
         }
     }
 
+    override fun drain(timeoutMillis: Long): Boolean {
+        return worker?.drain(timeoutMillis) ?: true
+    }
+
     /**
      * Do the real job of writing log to file.
      */
-    private fun doPrintln(timeMillis: Long, logLevel: Int, tag: String, msg: String) {
+    private fun doPrintln(event: LogEvent) {
         val lastFileName = writer.openedFileName
         val isWriterClosed = !writer.isOpened
         if (lastFileName == null || isWriterClosed || fileNameGenerator.isFileNameChangeable) {
-            val newFileName = fileNameGenerator.generateFileName(logLevel, System.currentTimeMillis())
+            var newFileName = fileNameGenerator.generateFileName(event.level, System.currentTimeMillis())
             if (newFileName.isNullOrBlank()) {
-                Platform.get().error("File name should not be empty, ignore log: $msg")
+                Platform.get().error("File name should not be empty, ignore log: ${event.msg}")
                 return
             }
+            if (segmentTag != null) {
+                newFileName += SEGMENT_SEPARATOR + segmentTag
+            }
             if (newFileName != lastFileName || isWriterClosed) {
                 writer.close()
-                cleanLogFilesIfNecessary()
+                withFolderLock { cleanLogFilesIfNecessary() }
                 if (!writer.open(File(folderPath, newFileName))) {
                     return
                 }
@@ -135,14 +164,28 @@ class FilePrinter internal constructor(builder: Builder) : Printer {
         val lastFile = writer.openedFile
         if (backupStrategy.shouldBackup(lastFile)) {
             // Backup the log file, and create a new log file.
-            writer.close()
-            BackupUtil.backup(lastFile, backupStrategy)
-            if (!writer.open(File(folderPath, writer.openedFileName ?: return))) {
+            val loggingFileName = writer.openedFileName ?: return
+            val backedUp = withFolderLock {
+                writer.close()
+                BackupUtil.backup(lastFile, backupStrategy)
+            }
+            if (backedUp && !writer.open(File(folderPath, loggingFileName))) {
                 return
             }
         }
-        val flattenedLog = flattener.flatten(timeMillis, logLevel, tag, msg).toString()
-        writer.appendLog(flattenedLog)
+        val flattener = flattener
+        if (flattener is Flattener3) {
+            val sb = flattenBuffer
+            sb.setLength(0)
+            event.flattenTo(flattener, sb)
+            writer.appendLog(sb)
+            if (sb.capacity() > MAX_FLATTEN_BUFFER_CAPACITY) {
+                // Don't keep a huge buffer for an occasional huge log.
+                flattenBuffer = StringBuilder(INITIAL_FLATTEN_BUFFER_CAPACITY)
+            }
+        } else {
+            writer.appendLog(event.flatten(flattener))
+        }
     }
 
     /**
@@ -152,12 +195,27 @@ class FilePrinter internal constructor(builder: Builder) : Printer {
         val logDir = File(folderPath)
         val files = logDir.listFiles() ?: return
         for (file in files) {
+            if (file.name == FolderLock.LOCK_FILE_NAME) {
+                continue
+            }
             if (cleanStrategy.shouldClean(file)) {
                 file.delete()
             }
         }
     }
 
+    /**
+     * Run the action while holding the folder lock in multi-process mode, or just run it otherwise.
+     *
+     * @return true if the action is run, false if the lock is held by another process
+     */
+    private fun withFolderLock(action: Runnable): Boolean {
+        return folderLock?.tryRun(action) ?: run {
+            action.run()
+            true
+        }
+    }
+
     /**
      * Builder for [FilePrinter].
      */
@@ -193,6 +251,11 @@ class FilePrinter internal constructor(builder: Builder) : Printer {
          */
         internal var writer: Writer = DefaultsFactory.createWriter()
 
+        /**
+         * The name of current process, null if not in multi-process mode.
+         */
+        internal var processName: String? = null
+
         /**
          * Set the file name generator for log file.
          *
@@ -274,6 +337,36 @@ class FilePrinter internal constructor(builder: Builder) : Printer {
             return this
         }
 
+        /**
+         * Enable multi-process mode, use when several processes log to the same folder.
+         *
+         * Each process writes its own segment files, named by appending
+         * "[SEGMENT_SEPARATOR]process" to the generated file name, and backing up or cleaning
+         * log files is guarded by an inter-process lock. Use [MergedLogReader] to read the
+         * segments of all processes as one log.
+         *
+         * @return the builder
+         * @since 2.1.0
+         */
+        fun multiProcess(): Builder {
+            val processName = Platform.get().processName()
+                ?: throw IllegalStateException("Can not get the name of current process")
+            return multiProcess(processName)
+        }
+
+        /**
+         * Enable multi-process mode with a specific process name.
+         *
+         * @param processName the name of current process, used to name the segment files
+         * @return the builder
+         * @see multiProcess
+         * @since 2.1.0
+         */
+        fun multiProcess(processName: String): Builder {
+            this.processName = processName
+            return this
+        }
+
         /**
          * Build configured [FilePrinter] object.
          *
@@ -303,79 +396,42 @@ class FilePrinter internal constructor(builder: Builder) : Printer {
         }
     }
 
-    private data class LogItem(
-        val timeMillis: Long,
-        val level: Int,
-        val tag: String,
-        val msg: String
-    )
-
     /**
      * Work in background, we can enqueue the logs, and the worker will dispatch them.
      */
-    private inner class Worker : Runnable {
-
-        private val logs: BlockingQueue<LogItem> = LinkedBlockingQueue()
+    private inner class Worker :
+        QueueWorker<LogEvent>("ZLog-FilePrinter", daemon = false, drainable = this@FilePrinter) {
 
-        @Volatile
-        private var started = false
+        override fun process(item: LogEvent) {
+            doPrintln(item)
+        }
+    }
 
+    companion object {
         /**
-         * Enqueue the log.
-         *
-         * @param log the log to be written to file
+         * Use worker, write logs asynchronously.
          */
-        fun enqueue(log: LogItem) {
-            try {
-                logs.put(log)
-            } catch (e: InterruptedException) {
-                e.printStackTrace()
-            }
-        }
+        private const val USE_WORKER = true
+
+        private const val INITIAL_FLATTEN_BUFFER_CAPACITY = 1024
+
+        private const val MAX_FLATTEN_BUFFER_CAPACITY = 16 * 1024
 
         /**
-         * Whether the worker is started.
-         *
-         * @return true if started, false otherwise
+         * The separator between file name and process tag of a segment file.
          */
-        fun isStarted(): Boolean {
-            synchronized(this) {
-                return started
-            }
-        }
+        const val SEGMENT_SEPARATOR = "@"
 
         /**
-         * Start the worker.
+         * Make a file name safe tag from the process name, e.g. "com.example:remote" would be
+         * "com_example_remote".
          */
-        fun start() {
-            synchronized(this) {
-                if (started) {
-                    return
-                }
-                Thread(this).start()
-                started = true
-            }
-        }
-
-        override fun run() {
-            try {
-                while (true) {
-                    val log = logs.take()
-                    doPrintln(log.timeMillis, log.level, log.tag, log.msg)
-                }
-            } catch (e: InterruptedException) {
-                e.printStackTrace()
-                synchronized(this) {
-                    started = false
-                }
+        internal fun segmentTagOf(processName: String): String {
+            val sb = StringBuilder(processName.length)
+            for (c in processName) {
+                sb.append(if (c.isLetterOrDigit() || c == '_' || c == '-') c else '_')
             }
+            return sb.toString()
         }
     }
-
-    companion object {
-        /**
-         * Use worker, write logs asynchronously.
-         */
-        private const val USE_WORKER = true
-    }
 }
\ No newline at end of file
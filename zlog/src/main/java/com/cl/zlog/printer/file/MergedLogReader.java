@@ -0,0 +1,266 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.printer.file;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Read several log files as one log, the logs are merged by their time, mostly used to read the
+ * segment files written by {@link FilePrinter} in multi-process mode.
+ * <p>
+ * The files are read in a streaming way, only one log of each file is kept in memory. A log may
+ * have several lines, the lines which don't start with a timestamp belong to the previous log.
+ * <p>
+ * Each file should already be sorted by time, which is always true for log files.
+ *
+ * @see FilePrinter.Builder#multiProcess()
+ * @since 2.1.0
+ */
+public class MergedLogReader implements Closeable {
+
+  /**
+   * Parse the timestamp at the beginning of a log line.
+   */
+  public interface TimestampParser {
+
+    /**
+     * Parse the timestamp at the beginning of a log line.
+     *
+     * @param line the log line
+     * @return a non-negative value which increases with the time of log, not necessarily the
+     * time milliseconds, or -1 if the line doesn't start with a timestamp
+     */
+    long parse(String line);
+  }
+
+  /**
+   * Parse timestamps in format of "yyyy-MM-dd HH:mm:ss" or "yyyy-MM-dd HH:mm:ss.SSS", as
+   * written by {@link com.cl.zlog.flattener.DefaultFlattener} and
+   * {@link com.cl.zlog.flattener.ClassicFlattener}.
+   */
+  public static final TimestampParser DEFAULT_TIMESTAMP_PARSER = new TimestampParser() {
+
+    // Offsets of digits and separators in "yyyy-MM-dd HH:mm:ss".
+    private final int[] digitOffsets = {0, 1, 2, 3, 5, 6, 8, 9, 11, 12, 14, 15, 17, 18};
+    private final int[] separatorOffsets = {4, 7, 10, 13, 16};
+    private final char[] separators = {'-', '-', ' ', ':', ':'};
+
+    @Override
+    public long parse(String line) {
+      if (line.length() < 19) {
+        return -1;
+      }
+      long value = 0;
+      for (int offset : digitOffsets) {
+        char c = line.charAt(offset);
+        if (c < '0' || c > '9') {
+          return -1;
+        }
+        value = value * 10 + (c - '0');
+      }
+      for (int i = 0; i < separatorOffsets.length; i++) {
+        if (line.charAt(separatorOffsets[i]) != separators[i]) {
+          return -1;
+        }
+      }
+      int millis = 0;
+      if (line.length() >= 23 && line.charAt(19) == '.') {
+        for (int i = 20; i < 23; i++) {
+          char c = line.charAt(i);
+          if (c < '0' || c > '9') {
+            millis = 0;
+            break;
+          }
+          millis = millis * 10 + (c - '0');
+        }
+      }
+      // yyyyMMddHHmmssSSS, increases with the time.
+      return value * 1000 + millis;
+    }
+  };
+
+  private final TimestampParser timestampParser;
+
+  private final PriorityQueue<Cursor> cursors;
+
+  private final List<Cursor> allCursors;
+
+  /**
+   * Constructor, timestamps are parsed by {@link #DEFAULT_TIMESTAMP_PARSER}.
+   *
+   * @param files the log files to merge
+   * @throws IOException if any file can not be opened
+   */
+  public MergedLogReader(List<File> files) throws IOException {
+    this(files, DEFAULT_TIMESTAMP_PARSER);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param files           the log files to merge
+   * @param timestampParser the parser to parse the timestamp of each log line
+   * @throws IOException if any file can not be opened
+   */
+  public MergedLogReader(List<File> files, TimestampParser timestampParser) throws IOException {
+    this.timestampParser = timestampParser;
+    this.cursors = new PriorityQueue<>(Math.max(1, files.size()));
+    this.allCursors = new ArrayList<>(files.size());
+    try {
+      for (int i = 0; i < files.size(); i++) {
+        Cursor cursor = new Cursor(i, files.get(i));
+        allCursors.add(cursor);
+        if (cursor.advance()) {
+          cursors.add(cursor);
+        }
+      }
+    } catch (IOException e) {
+      close();
+      throw e;
+    }
+  }
+
+  /**
+   * Find the current segment files of all processes in a folder, not including the backups.
+   *
+   * @param folder   the log folder
+   * @param fileName the file name generated by the file name generator, without process tag
+   * @return the segment files, sorted by name
+   */
+  public static List<File> findSegments(File folder, final String fileName) {
+    String prefix = fileName + FilePrinter.SEGMENT_SEPARATOR;
+    List<File> segments = new ArrayList<>();
+    File[] files = folder.listFiles();
+    if (files == null) {
+      return segments;
+    }
+    Arrays.sort(files);
+    for (File file : files) {
+      String name = file.getName();
+      if (name.startsWith(prefix) && name.indexOf('.', prefix.length()) == -1) {
+        segments.add(file);
+      }
+    }
+    return segments;
+  }
+
+  /**
+   * Read the next log in time order.
+   *
+   * @return the next log, lines separated by '\n', or null if all files are read
+   * @throws IOException if failed to read any file
+   */
+  public String readLog() throws IOException {
+    Cursor cursor = cursors.poll();
+    if (cursor == null) {
+      return null;
+    }
+    String log = cursor.log;
+    if (cursor.advance()) {
+      cursors.add(cursor);
+    }
+    return log;
+  }
+
+  @Override
+  public void close() throws IOException {
+    IOException exception = null;
+    for (Cursor cursor : allCursors) {
+      try {
+        cursor.reader.close();
+      } catch (IOException e) {
+        exception = e;
+      }
+    }
+    cursors.clear();
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
+  /**
+   * Read a file log by log.
+   */
+  private class Cursor implements Comparable<Cursor> {
+
+    final int index;
+
+    final BufferedReader reader;
+
+    /**
+     * The first line of next log, already read from the file.
+     */
+    String pendingLine;
+
+    /**
+     * Current log.
+     */
+    String log;
+
+    long timestamp;
+
+    Cursor(int index, File file) throws IOException {
+      this.index = index;
+      this.reader = new BufferedReader(
+          new InputStreamReader(new FileInputStream(file), Charset.forName("UTF-8")));
+      this.pendingLine = reader.readLine();
+    }
+
+    /**
+     * Move to the next log.
+     *
+     * @return true if there is a next log, false if reach the end of file
+     */
+    boolean advance() throws IOException {
+      if (pendingLine == null) {
+        log = null;
+        return false;
+      }
+      timestamp = timestampParser.parse(pendingLine);
+      StringBuilder sb = null;
+      String first = pendingLine;
+      String line;
+      while ((line = reader.readLine()) != null && timestampParser.parse(line) < 0) {
+        if (sb == null) {
+          sb = new StringBuilder(first);
+        }
+        sb.append('\n').append(line);
+      }
+      pendingLine = line;
+      log = sb != null ? sb.toString() : first;
+      return true;
+    }
+
+    @Override
+    public int compareTo(Cursor other) {
+      if (timestamp != other.timestamp) {
+        return timestamp < other.timestamp ? -1 : 1;
+      }
+      return index - other.index;
+    }
+  }
+}
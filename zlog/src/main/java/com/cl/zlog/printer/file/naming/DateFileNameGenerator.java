@@ -16,8 +16,8 @@
 
 package com.cl.zlog.printer.file.naming;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import com.cl.zlog.internal.util.TimestampFormatter;
+
 import java.util.Locale;
 import java.util.TimeZone;
 
@@ -26,13 +26,7 @@ import java.util.TimeZone;
  */
 public class DateFileNameGenerator implements FileNameGenerator {
 
-  ThreadLocal<SimpleDateFormat> mLocalDateFormat = new ThreadLocal<SimpleDateFormat>() {
-
-    @Override
-    protected SimpleDateFormat initialValue() {
-      return new SimpleDateFormat("yyyy-MM-dd", Locale.US);
-    }
-  };
+  private volatile TimestampFormatter mDateFormatter;
 
   @Override
   public boolean isFileNameChangeable() {
@@ -44,8 +38,13 @@ public class DateFileNameGenerator implements FileNameGenerator {
    */
   @Override
   public String generateFileName(int logLevel, long timestamp) {
-    SimpleDateFormat sdf = mLocalDateFormat.get();
-    sdf.setTimeZone(TimeZone.getDefault());
-    return sdf.format(new Date(timestamp));
+    TimeZone timeZone = TimeZone.getDefault();
+    TimestampFormatter dateFormatter = mDateFormatter;
+    if (dateFormatter == null || !dateFormatter.getTimeZone().getID().equals(timeZone.getID())) {
+      // The time zone may be changed at any time.
+      dateFormatter = new TimestampFormatter("yyyy-MM-dd", timeZone, Locale.US);
+      mDateFormatter = dateFormatter;
+    }
+    return dateFormatter.format(timestamp);
   }
 }
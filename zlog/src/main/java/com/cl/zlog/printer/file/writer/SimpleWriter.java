@@ -32,6 +32,10 @@ import java.io.FileWriter;
  */
 public class SimpleWriter extends Writer {
 
+  private static final int INITIAL_CHARS_SIZE = 1024;
+
+  private static final int MAX_CHARS_SIZE = 16 * 1024;
+
   /**
    * The name of opened log file.
    */
@@ -44,6 +48,17 @@ public class SimpleWriter extends Writer {
 
   private BufferedWriter bufferedWriter;
 
+  /**
+   * Reusable buffer to copy the chars of a log out of a {@link StringBuilder}.
+   */
+  private char[] chars;
+
+  /**
+   * Whether {@link #appendLog(String)} is overridden by a subclass, if so, the logs in a buffer
+   * are passed to it as well, never written directly.
+   */
+  private final boolean appendStringOverridden = isAppendStringOverridden(getClass());
+
   @Override
   public boolean open(File file) {
     logFileName = file.getName();
@@ -120,6 +135,43 @@ public class SimpleWriter extends Writer {
     }
   }
 
+  /**
+   * Append the log in a buffer, the chars are written directly, without creating a string, unless
+   * {@link #appendLog(String)} is overridden, then the log is passed to it.
+   */
+  @Override
+  public void appendLog(StringBuilder log) {
+    if (appendStringOverridden) {
+      appendLog(log.toString());
+      return;
+    }
+    int length = log.length();
+    if (chars == null || chars.length < length) {
+      chars = new char[Math.max(length, INITIAL_CHARS_SIZE)];
+    }
+    log.getChars(0, length, chars, 0);
+    try {
+      bufferedWriter.write(chars, 0, length);
+      bufferedWriter.newLine();
+      bufferedWriter.flush();
+    } catch (Exception e) {
+      Platform.get().warn("append log failed: " + e.getMessage());
+    }
+    if (chars.length > MAX_CHARS_SIZE) {
+      // Don't keep a huge buffer for an occasional huge log.
+      chars = null;
+    }
+  }
+
+  private static boolean isAppendStringOverridden(Class<?> clazz) {
+    try {
+      return clazz.getMethod("appendLog", String.class).getDeclaringClass() != SimpleWriter.class;
+    } catch (NoSuchMethodException e) {
+      // Never happens, the method is declared here.
+      return true;
+    }
+  }
+
   @Override
   public boolean close() {
     if (bufferedWriter != null) {
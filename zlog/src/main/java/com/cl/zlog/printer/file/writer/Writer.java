@@ -63,6 +63,21 @@ public abstract class Writer {
    */
   public abstract void appendLog(String log);
 
+  /**
+   * Append the log in a buffer to the end of the opened log file, normally an extra line
+   * separator is needed.
+   * <p>
+   * The buffer is reused after this call, so the log should be written out, not kept. By
+   * default, the log is converted to a string and passed to {@link #appendLog(String)},
+   * override it to write the chars directly.
+   *
+   * @param log the log to append
+   * @since 2.1.0
+   */
+  public void appendLog(StringBuilder log) {
+    appendLog(log.toString());
+  }
+
   /**
    * Make sure the opened log file is closed, normally called before switching the log file.
    *
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.printer.remote
+
+import com.cl.zlog.internal.Platform
+import java.io.File
+import java.io.IOException
+import java.io.RandomAccessFile
+
+/**
+ * A [Spool] backed by an append-only data file, and a small file keeping the position of head.
+ *
+ * Records are appended to the data file with a length prefix, removing a record just moves the
+ * head forward. The data file is truncated once all records are removed, and compacted when the
+ * removed records take too much space. If the process dies while appending, the incomplete
+ * record is dropped when the spool is opened next time.
+ *
+ * @since 2.1.0
+ */
+class FileSpool @JvmOverloads constructor(
+    folder: File,
+    /**
+     * The max bytes of records kept, the oldest records are dropped when exceeded.
+     */
+    private val maxBytes: Long = DEFAULT_MAX_BYTES
+) : Spool {
+
+    private val dataFile: RandomAccessFile
+
+    private val headFile: RandomAccessFile
+
+    /**
+     * The position of the first record not removed.
+     */
+    private var head: Long
+
+    /**
+     * The position after the last complete record.
+     */
+    private var tail: Long
+
+    init {
+        if (!folder.exists()) {
+            folder.mkdirs()
+        }
+        dataFile = RandomAccessFile(File(folder, DATA_FILE_NAME), "rw")
+        headFile = RandomAccessFile(File(folder, HEAD_FILE_NAME), "rw")
+        val length = dataFile.length()
+        head = if (headFile.length() >= 8) headFile.readLong() else 0
+        if (head < 0 || head > length) {
+            // Compaction was interrupted after the records had been moved to the beginning.
+            head = 0
+        }
+        tail = recoverTail(length)
+    }
+
+    /**
+     * Find the end of the last complete record, and drop the incomplete one after it.
+     */
+    private fun recoverTail(length: Long): Long {
+        var position = head
+        while (position + 4 <= length) {
+            dataFile.seek(position)
+            val size = dataFile.readInt()
+            if (size < 0 || position + 4 + size > length) {
+                break
+            }
+            position += 4 + size
+        }
+        if (position != length) {
+            dataFile.setLength(position)
+        }
+        return position
+    }
+
+    override fun append(record: ByteArray) {
+        val recordBytes = 4L + record.size
+        if (recordBytes > maxBytes) {
+            Platform.get().warn("Record too large for spool, dropped: ${record.size} bytes")
+            return
+        }
+        while (tail - head + recordBytes > maxBytes) {
+            remove()
+        }
+        if (head > maxBytes / 2 && tail - head < head) {
+            compact()
+        }
+        dataFile.seek(tail)
+        dataFile.writeInt(record.size)
+        dataFile.write(record)
+        tail += recordBytes
+    }
+
+    override fun peek(): ByteArray? {
+        if (isEmpty()) {
+            return null
+        }
+        dataFile.seek(head)
+        val record = ByteArray(dataFile.readInt())
+        dataFile.readFully(record)
+        return record
+    }
+
+    override fun remove() {
+        if (isEmpty()) {
+            return
+        }
+        dataFile.seek(head)
+        head += 4 + dataFile.readInt()
+        if (head >= tail) {
+            // All removed, start over.
+            dataFile.setLength(0)
+            head = 0
+            tail = 0
+        }
+        writeHead()
+    }
+
+    override fun isEmpty(): Boolean {
+        return head >= tail
+    }
+
+    /**
+     * Move the records to the beginning of data file, so the space of removed records is freed.
+     *
+     * Only called when the records are less than the removed ones, so the records are not
+     * overwritten while moving, and nothing is lost if the process dies during compaction.
+     */
+    private fun compact() {
+        val buffer = ByteArray(COPY_BUFFER_SIZE)
+        var from = head
+        var to = 0L
+        while (from < tail) {
+            dataFile.seek(from)
+            val read = dataFile.read(buffer, 0, minOf(buffer.size.toLong(), tail - from).toInt())
+            if (read <= 0) {
+                throw IOException("Unexpected end of spool")
+            }
+            dataFile.seek(to)
+            dataFile.write(buffer, 0, read)
+            from += read
+            to += read
+        }
+        tail -= head
+        head = 0
+        // Truncate before saving the head, see init.
+        dataFile.setLength(tail)
+        writeHead()
+    }
+
+    private fun writeHead() {
+        headFile.seek(0)
+        headFile.writeLong(head)
+    }
+
+    override fun close() {
+        try {
+            dataFile.close()
+        } finally {
+            headFile.close()
+        }
+    }
+
+    companion object {
+        private const val DATA_FILE_NAME = "spool.dat"
+
+        private const val HEAD_FILE_NAME = "spool.head"
+
+        private const val DEFAULT_MAX_BYTES = 8 * 1024 * 1024L // 8M bytes
+
+        private const val COPY_BUFFER_SIZE = 8 * 1024
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.printer.remote
+
+import java.io.IOException
+import java.net.HttpURLConnection
+import java.net.URL
+
+/**
+ * A [Transport] which POSTs each batch to an HTTP(S) url via [HttpURLConnection], with header
+ * "Content-Encoding: gzip", any 2xx response means the batch is accepted.
+ *
+ * @since 2.1.0
+ */
+class HttpTransport @JvmOverloads constructor(
+    /**
+     * The url to post batches to.
+     */
+    private val url: String,
+    /**
+     * Extra headers of each request, e.g. authorization.
+     */
+    private val headers: Map<String, String> = emptyMap(),
+    private val connectTimeoutMillis: Int = DEFAULT_TIMEOUT_MILLIS,
+    private val readTimeoutMillis: Int = DEFAULT_TIMEOUT_MILLIS
+) : Transport {
+
+    override fun send(batch: ByteArray) {
+        val connection = URL(url).openConnection() as HttpURLConnection
+        try {
+            connection.requestMethod = "POST"
+            connection.doOutput = true
+            connection.useCaches = false
+            connection.connectTimeout = connectTimeoutMillis
+            connection.readTimeout = readTimeoutMillis
+            connection.setFixedLengthStreamingMode(batch.size)
+            connection.setRequestProperty("Content-Type", "text/plain; charset=utf-8")
+            connection.setRequestProperty("Content-Encoding", "gzip")
+            for ((name, value) in headers) {
+                connection.setRequestProperty(name, value)
+            }
+            connection.outputStream.use { it.write(batch) }
+            val code = connection.responseCode
+            if (code !in 200..299) {
+                throw IOException("Unexpected response code $code from $url")
+            }
+            // Read the response out, so the connection can be reused.
+            connection.inputStream.use { input ->
+                val buffer = ByteArray(512)
+                while (input.read(buffer) != -1) {
+                    // Ignore.
+                }
+            }
+        } finally {
+            connection.disconnect()
+        }
+    }
+
+    companion object {
+        private const val DEFAULT_TIMEOUT_MILLIS = 15 * 1000
+    }
+}
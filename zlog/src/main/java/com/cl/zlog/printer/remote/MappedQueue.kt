@@ -0,0 +1,262 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.printer.remote
+
+import com.cl.zlog.internal.Platform
+import java.io.File
+import java.io.IOException
+import java.io.RandomAccessFile
+import java.nio.MappedByteBuffer
+import java.nio.channels.FileChannel
+
+/**
+ * A persistent queue made of fixed-size memory-mapped segment files, records are appended to the
+ * last segment and read from the first one, both in O(1), without holding the records in heap.
+ *
+ * The read and write cursors are kept in a small memory-mapped header file, and a segment file
+ * is deleted once all its records are removed. The cursors are only moved after a record is
+ * completely written, so a record half written when the process dies is simply ignored.
+ *
+ * Use it as the [Spool] of [com.cl.zlog.printer.RemotePrinter] when a lot of logs should be
+ * kept while the network is down.
+ *
+ * @since 2.1.0
+ */
+class MappedQueue @JvmOverloads constructor(
+    private val folder: File,
+    /**
+     * The size of each segment file, a record can not be larger than this.
+     */
+    private val segmentSize: Int = DEFAULT_SEGMENT_SIZE,
+    /**
+     * The max number of segment files, the oldest segment is dropped when exceeded.
+     */
+    private val maxSegments: Int = DEFAULT_MAX_SEGMENTS
+) : Spool {
+
+    /**
+     * The cursors: read segment, read position, write segment, write position.
+     */
+    private val header: MappedByteBuffer
+
+    private var readSegment: Long
+
+    private var readPosition: Int
+
+    private var writeSegment: Long
+
+    private var writePosition: Int
+
+    private var readBuffer: MappedByteBuffer? = null
+
+    private var writeBuffer: MappedByteBuffer? = null
+
+    init {
+        require(segmentSize > RECORD_HEADER_SIZE) { "segmentSize too small" }
+        require(maxSegments > 0) { "maxSegments should be positive" }
+        if (!folder.exists()) {
+            folder.mkdirs()
+        }
+        header = map(File(folder, HEADER_FILE_NAME), HEADER_SIZE)
+        readSegment = header.getLong(READ_SEGMENT_OFFSET)
+        readPosition = header.getInt(READ_POSITION_OFFSET)
+        writeSegment = header.getLong(WRITE_SEGMENT_OFFSET)
+        writePosition = header.getInt(WRITE_POSITION_OFFSET)
+        if (readSegment > writeSegment
+            || readPosition !in 0..segmentSize
+            || writePosition !in 0..segmentSize
+            || (readSegment == writeSegment && readPosition > writePosition)
+        ) {
+            Platform.get().warn("Broken queue header in $folder, start over")
+            readSegment = 0
+            readPosition = 0
+            writeSegment = 0
+            writePosition = 0
+            writeHeader()
+        }
+        deleteOrphanSegments()
+    }
+
+    @Synchronized
+    override fun append(record: ByteArray) {
+        val recordSize = RECORD_HEADER_SIZE + record.size
+        if (recordSize > segmentSize) {
+            Platform.get().warn("Record too large for queue, dropped: ${record.size} bytes")
+            return
+        }
+        if (writePosition + recordSize > segmentSize) {
+            if (writePosition + RECORD_HEADER_SIZE <= segmentSize) {
+                writeBuffer().putInt(writePosition, END_OF_SEGMENT)
+            }
+            writeSegment++
+            writePosition = 0
+            writeBuffer = null
+            while (writeSegment - readSegment >= maxSegments) {
+                Platform.get().warn("Queue full, segment $readSegment dropped")
+                nextReadSegment()
+            }
+        }
+        val buffer = writeBuffer()
+        buffer.position(writePosition + RECORD_HEADER_SIZE)
+        buffer.put(record)
+        buffer.putInt(writePosition, record.size)
+        writePosition += recordSize
+        writeHeader()
+    }
+
+    @Synchronized
+    override fun peek(): ByteArray? {
+        if (!skipEndOfSegment()) {
+            return null
+        }
+        val buffer = readBuffer()
+        val record = ByteArray(buffer.getInt(readPosition))
+        buffer.position(readPosition + RECORD_HEADER_SIZE)
+        buffer.get(record)
+        return record
+    }
+
+    @Synchronized
+    override fun remove() {
+        if (!skipEndOfSegment()) {
+            return
+        }
+        readPosition += RECORD_HEADER_SIZE + readBuffer().getInt(readPosition)
+        writeHeader()
+    }
+
+    @Synchronized
+    override fun isEmpty(): Boolean {
+        return readSegment == writeSegment && readPosition == writePosition
+    }
+
+    /**
+     * Move the read cursor to the next segment if reaching the end of current one.
+     *
+     * @return true if there is a record at the read cursor, false if the queue is empty
+     */
+    private fun skipEndOfSegment(): Boolean {
+        while (!isEmpty()) {
+            if (readSegment == writeSegment
+                || (readPosition + RECORD_HEADER_SIZE <= segmentSize
+                    && readBuffer().getInt(readPosition) != END_OF_SEGMENT)
+            ) {
+                return true
+            }
+            nextReadSegment()
+            writeHeader()
+        }
+        return false
+    }
+
+    /**
+     * Move the read cursor to the beginning of next segment, and delete current one.
+     */
+    private fun nextReadSegment() {
+        readBuffer = null
+        segmentFile(readSegment).delete()
+        readSegment++
+        readPosition = 0
+    }
+
+    private fun readBuffer(): MappedByteBuffer {
+        return readBuffer ?: (if (readSegment == writeSegment) writeBuffer() else mapSegment(readSegment))
+            .also { readBuffer = it }
+    }
+
+    private fun writeBuffer(): MappedByteBuffer {
+        return writeBuffer ?: mapSegment(writeSegment).also { writeBuffer = it }
+    }
+
+    private fun mapSegment(segment: Long): MappedByteBuffer {
+        return map(segmentFile(segment), segmentSize)
+    }
+
+    private fun segmentFile(segment: Long): File {
+        return File(folder, SEGMENT_FILE_PREFIX + segment)
+    }
+
+    private fun writeHeader() {
+        header.putLong(READ_SEGMENT_OFFSET, readSegment)
+        header.putInt(READ_POSITION_OFFSET, readPosition)
+        header.putLong(WRITE_SEGMENT_OFFSET, writeSegment)
+        header.putInt(WRITE_POSITION_OFFSET, writePosition)
+    }
+
+    /**
+     * Delete the segments out of the cursors, left by a broken header or a crash.
+     */
+    private fun deleteOrphanSegments() {
+        val files = folder.listFiles() ?: return
+        for (file in files) {
+            val name = file.name
+            if (!name.startsWith(SEGMENT_FILE_PREFIX)) {
+                continue
+            }
+            val segment = name.substring(SEGMENT_FILE_PREFIX.length).toLongOrNull() ?: continue
+            if (segment < readSegment || segment > writeSegment) {
+                file.delete()
+            }
+        }
+    }
+
+    /**
+     * Flush the changes to disk, the mapped files are released when garbage collected.
+     */
+    @Synchronized
+    override fun close() {
+        writeBuffer?.force()
+        header.force()
+        readBuffer = null
+        writeBuffer = null
+    }
+
+    companion object {
+        private const val HEADER_FILE_NAME = "queue.head"
+
+        private const val SEGMENT_FILE_PREFIX = "segment-"
+
+        private const val DEFAULT_SEGMENT_SIZE = 4 * 1024 * 1024 // 4M bytes
+
+        private const val DEFAULT_MAX_SEGMENTS = 64
+
+        private const val RECORD_HEADER_SIZE = 4
+
+        /**
+         * Written instead of a record length, when the rest of a segment can't hold next record.
+         */
+        private const val END_OF_SEGMENT = -1
+
+        private const val READ_SEGMENT_OFFSET = 0
+
+        private const val READ_POSITION_OFFSET = 8
+
+        private const val WRITE_SEGMENT_OFFSET = 12
+
+        private const val WRITE_POSITION_OFFSET = 20
+
+        private const val HEADER_SIZE = 24
+
+        @Throws(IOException::class)
+        private fun map(file: File, size: Int): MappedByteBuffer {
+            RandomAccessFile(file, "rw").use { raf ->
+                // The mapping stays valid after the file is closed.
+                return raf.channel.map(FileChannel.MapMode.READ_WRITE, 0, size.toLong())
+            }
+        }
+    }
+}
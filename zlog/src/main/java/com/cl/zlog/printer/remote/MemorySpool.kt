@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.printer.remote
+
+import java.util.ArrayDeque
+
+/**
+ * A [Spool] keeping records in memory, the records are lost if the process dies.
+ *
+ * @since 2.1.0
+ */
+class MemorySpool @JvmOverloads constructor(
+    /**
+     * The max bytes of records kept, the oldest records are dropped when exceeded.
+     */
+    private val maxBytes: Long = DEFAULT_MAX_BYTES
+) : Spool {
+
+    private val records = ArrayDeque<ByteArray>()
+
+    private var bytes = 0L
+
+    @Synchronized
+    override fun append(record: ByteArray) {
+        if (record.size > maxBytes) {
+            return
+        }
+        while (bytes + record.size > maxBytes) {
+            remove()
+        }
+        records.addLast(record)
+        bytes += record.size
+    }
+
+    @Synchronized
+    override fun peek(): ByteArray? {
+        return records.peekFirst()
+    }
+
+    @Synchronized
+    override fun remove() {
+        val record = records.pollFirst() ?: return
+        bytes -= record.size
+    }
+
+    @Synchronized
+    override fun isEmpty(): Boolean {
+        return records.isEmpty()
+    }
+
+    @Synchronized
+    override fun close() {
+        records.clear()
+        bytes = 0
+    }
+
+    companion object {
+        private const val DEFAULT_MAX_BYTES = 1024 * 1024L // 1M bytes
+    }
+}
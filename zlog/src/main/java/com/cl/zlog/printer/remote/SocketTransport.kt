@@ -0,0 +1,86 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.printer.remote
+
+import java.io.IOException
+import java.net.InetSocketAddress
+import java.nio.ByteBuffer
+import java.nio.channels.SocketChannel
+
+/**
+ * A [Transport] which writes each batch to a raw TCP connection via [SocketChannel], as a
+ * 4-byte big-endian length followed by the batch.
+ *
+ * The connection is kept open between batches, and re-established after any failure. There is
+ * no acknowledgement from the server, a batch is considered sent once it is written to the socket.
+ *
+ * @since 2.1.0
+ */
+class SocketTransport @JvmOverloads constructor(
+    private val host: String,
+    private val port: Int,
+    private val connectTimeoutMillis: Int = DEFAULT_CONNECT_TIMEOUT_MILLIS
+) : Transport {
+
+    private var channel: SocketChannel? = null
+
+    private val header: ByteBuffer = ByteBuffer.allocate(4)
+
+    override fun send(batch: ByteArray) {
+        val channel = channel ?: connect()
+        try {
+            header.clear()
+            header.putInt(batch.size)
+            header.flip()
+            val buffers = arrayOf(header, ByteBuffer.wrap(batch))
+            while (buffers[1].hasRemaining()) {
+                channel.write(buffers)
+            }
+        } catch (e: IOException) {
+            close()
+            throw e
+        }
+    }
+
+    private fun connect(): SocketChannel {
+        val channel = SocketChannel.open()
+        try {
+            channel.socket().connect(InetSocketAddress(host, port), connectTimeoutMillis)
+            channel.socket().tcpNoDelay = true
+        } catch (e: IOException) {
+            channel.close()
+            throw e
+        }
+        this.channel = channel
+        return channel
+    }
+
+    /**
+     * Close the connection, it will be re-established when sending next batch.
+     */
+    fun close() {
+        try {
+            channel?.close()
+        } catch (ignored: IOException) {
+        }
+        channel = null
+    }
+
+    companion object {
+        private const val DEFAULT_CONNECT_TIMEOUT_MILLIS = 15 * 1000
+    }
+}
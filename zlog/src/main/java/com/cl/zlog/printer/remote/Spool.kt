@@ -0,0 +1,59 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.printer.remote
+
+import java.io.Closeable
+import java.io.IOException
+
+/**
+ * A first-in first-out queue of records which survives the death of process, used by
+ * [com.cl.zlog.printer.RemotePrinter] to keep the batches not sent yet.
+ *
+ * Only accessed in one thread.
+ *
+ * @see FileSpool
+ * @since 2.1.0
+ */
+interface Spool : Closeable {
+
+    /**
+     * Append a record to the tail of the queue.
+     *
+     * @param record the record to append
+     */
+    @Throws(IOException::class)
+    fun append(record: ByteArray)
+
+    /**
+     * Get the record at the head of the queue, without removing it.
+     *
+     * @return the head record, or null if the queue is empty
+     */
+    @Throws(IOException::class)
+    fun peek(): ByteArray?
+
+    /**
+     * Remove the record at the head of the queue, if any.
+     */
+    @Throws(IOException::class)
+    fun remove()
+
+    /**
+     * Whether the queue is empty.
+     */
+    fun isEmpty(): Boolean
+}
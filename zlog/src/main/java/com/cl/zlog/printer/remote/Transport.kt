@@ -0,0 +1,41 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.printer.remote
+
+import java.io.IOException
+
+/**
+ * A transport sends batches of logs to the remote server, used by
+ * [com.cl.zlog.printer.RemotePrinter].
+ *
+ * Called in the worker thread of the printer, so it is fine to block.
+ *
+ * @see HttpTransport
+ * @see SocketTransport
+ * @since 2.1.0
+ */
+interface Transport {
+
+    /**
+     * Send a batch of logs to the remote server.
+     *
+     * @param batch the gzip compressed batch, logs are separated by '\n' before compression
+     * @throws IOException if the batch is not accepted by the server, it will be sent again later
+     */
+    @Throws(IOException::class)
+    fun send(batch: ByteArray)
+}
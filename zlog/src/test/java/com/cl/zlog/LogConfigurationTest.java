@@ -0,0 +1,111 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog;
+
+import com.cl.zlog.formatter.message.object.BoundedObjectFormatter;
+import com.cl.zlog.formatter.message.object.ObjectFormatter;
+
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@SuppressWarnings("rawtypes")
+public class LogConfigurationTest {
+
+  @Test
+  public void testObjectFormatterOfInterface() {
+    ObjectFormatter<List> listFormatter = new NamedFormatter<>();
+    LogConfiguration configuration = new LogConfiguration.Builder()
+        .addObjectFormatter(List.class, listFormatter)
+        .build();
+
+    assertSame(listFormatter, configuration.getObjectFormatter(new ArrayList<>()));
+    assertSame(listFormatter, configuration.getObjectFormatter(new LinkedList<>()));
+    assertNull(configuration.getObjectFormatter(new Object()));
+    // Resolved from the cache this time.
+    assertSame(listFormatter, configuration.getObjectFormatter(new ArrayList<>()));
+    assertNull(configuration.getObjectFormatter(new Object()));
+  }
+
+  @Test
+  public void testSuperclassBeforeInterface() {
+    ObjectFormatter<AbstractList> abstractListFormatter = new NamedFormatter<>();
+    ObjectFormatter<List> listFormatter = new NamedFormatter<>();
+    LogConfiguration configuration = new LogConfiguration.Builder()
+        .addObjectFormatter(List.class, listFormatter)
+        .addObjectFormatter(AbstractList.class, abstractListFormatter)
+        .build();
+
+    assertSame(abstractListFormatter, configuration.getObjectFormatter(new ArrayList<>()));
+  }
+
+  @Test
+  public void testNearestInterfaceFirst() {
+    ObjectFormatter<Collection> collectionFormatter = new NamedFormatter<>();
+    ObjectFormatter<Serializable> serializableFormatter = new NamedFormatter<>();
+    LogConfiguration configuration = new LogConfiguration.Builder()
+        .addObjectFormatter(Collection.class, collectionFormatter)
+        .addObjectFormatter(Serializable.class, serializableFormatter)
+        .build();
+
+    // ArrayList declares Serializable directly, Collection only through List.
+    assertSame(serializableFormatter, configuration.getObjectFormatter(new ArrayList<>()));
+  }
+
+  @Test
+  public void testCustomFormatterBeforeBuiltin() {
+    ObjectFormatter<Iterable> iterableFormatter = new NamedFormatter<>();
+    LogConfiguration configuration = new LogConfiguration.Builder()
+        .addObjectFormatter(Iterable.class, iterableFormatter)
+        .build();
+
+    // Collection has a builtin formatter, but Iterable is added by user.
+    assertSame(iterableFormatter, configuration.getObjectFormatter(new ArrayList<>()));
+    assertTrue(configuration.getObjectFormatter(new HashMap<>())
+        instanceof BoundedObjectFormatter);
+  }
+
+  @Test
+  public void testFormattersCopiedWhenBuilding() {
+    ObjectFormatter<List> listFormatter = new NamedFormatter<>();
+    LogConfiguration.Builder builder = new LogConfiguration.Builder()
+        .addObjectFormatter(List.class, listFormatter);
+    LogConfiguration configuration = builder.build();
+    builder.addObjectFormatter(ArrayList.class, new NamedFormatter<ArrayList>());
+
+    assertEquals(listFormatter, configuration.getObjectFormatter(new ArrayList<>()));
+  }
+
+  private static class NamedFormatter<T> implements ObjectFormatter<T> {
+
+    @Override
+    public String format(T data) {
+      return data.getClass().getSimpleName();
+    }
+  }
+}
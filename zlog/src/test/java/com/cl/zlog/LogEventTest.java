@@ -0,0 +1,130 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog;
+
+import com.cl.zlog.flattener.ClassicFlattener;
+import com.cl.zlog.flattener.PatternFlattener;
+import com.cl.zlog.printer.EventPrinter;
+import com.cl.zlog.printer.PrinterSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class LogEventTest {
+
+  static int flattenCount;
+
+  @Before
+  public void setup() {
+    flattenCount = 0;
+  }
+
+  @Test
+  public void testFlattenOnceAcrossPrinters() {
+    List<String> logs = new ArrayList<>();
+    CountingFlattener shared = new CountingFlattener("{l}/{t}: {m}");
+    EventPrinter first = new FlatteningPrinter(shared, logs);
+    EventPrinter second = new FlatteningPrinter(shared, logs);
+    EventPrinter other = new FlatteningPrinter(new CountingFlattener("{t}: {m}"), logs);
+
+    ZLogUtil.beforeTest();
+    ZLog.init(LogLevel.ALL, new PrinterSet(first, second, other));
+    ZLog.tag("tag").build().i("msg");
+
+    assertEquals(2, flattenCount);
+    assertEquals(3, logs.size());
+    assertSame(logs.get(0), logs.get(1));
+    assertEquals("I/tag: msg", logs.get(0));
+    assertEquals("tag: msg", logs.get(2));
+  }
+
+  @Test
+  public void testFlattenerEquality() {
+    LogEvent event = new LogEvent(0, LogLevel.INFO, "tag", "msg");
+    String flattened = event.flatten(new ClassicFlattener());
+    assertSame(flattened, event.flatten(new ClassicFlattener()));
+    // Same pattern, but a different class.
+    assertNotSame(flattened, event.flatten(new PatternFlattener("{d} {l}/{t}: {m}")));
+  }
+
+  @Test
+  public void testSubclassFlattenersNotShared() {
+    LogEvent event = new LogEvent(0, LogLevel.INFO, "tag", "msg");
+
+    // Same class and pattern, but the subclass instances behave differently.
+    assertEquals("I/tag: msg", event.flatten(new UpperCaseFlattener(false)));
+    assertEquals("I/tag: MSG", event.flatten(new UpperCaseFlattener(true)));
+  }
+
+  private static class UpperCaseFlattener extends CountingFlattener {
+
+    private final boolean upperCase;
+
+    UpperCaseFlattener(boolean upperCase) {
+      super("{l}/{t}: {m}");
+      this.upperCase = upperCase;
+    }
+
+    @Override
+    public CharSequence flatten(long timeMillis, int logLevel, String tag, String message) {
+      return super.flatten(timeMillis, logLevel, tag,
+          upperCase ? message.toUpperCase() : message);
+    }
+  }
+
+  private static class CountingFlattener extends PatternFlattener {
+
+    CountingFlattener(String pattern) {
+      super(pattern);
+    }
+
+    @Override
+    public CharSequence flatten(long timeMillis, int logLevel, String tag, String message) {
+      flattenCount++;
+      return super.flatten(timeMillis, logLevel, tag, message);
+    }
+  }
+
+  private static class FlatteningPrinter implements EventPrinter {
+
+    private final CountingFlattener flattener;
+
+    private final List<String> logs;
+
+    FlatteningPrinter(CountingFlattener flattener, List<String> logs) {
+      this.flattener = flattener;
+      this.logs = logs;
+    }
+
+    @Override
+    public void println(int logLevel, String tag, String msg) {
+      println(new LogEvent(System.currentTimeMillis(), logLevel, tag, msg));
+    }
+
+    @Override
+    public void println(LogEvent event) {
+      logs.add(event.flatten(flattener));
+    }
+  }
+}
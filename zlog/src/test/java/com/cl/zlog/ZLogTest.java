@@ -29,6 +29,9 @@ import com.cl.zlog.internal.SystemCompat;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -40,6 +43,7 @@ import static com.cl.zlog.LogLevel.INFO;
 import static com.cl.zlog.LogLevel.NONE;
 import static com.cl.zlog.LogLevel.VERBOSE;
 import static com.cl.zlog.LogLevel.WARN;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class ZLogTest {
@@ -198,6 +202,103 @@ public class ZLogTest {
     assertTrue("Bordered log found", result);
   }
 
+  @Test
+  public void testDeferredFormatting() {
+    final List<String> threadFormattingThreads = new ArrayList<>();
+    final List<String> objectFormattingThreads = new ArrayList<>();
+    Logger logger = ZLog.enableDeferredFormatting()
+        .enableThreadInfo()
+        .threadFormatter(new ThreadFormatter() {
+          @Override
+          public String format(Thread data) {
+            threadFormattingThreads.add(Thread.currentThread().getName());
+            return "T:" + data.getName();
+          }
+        })
+        .addObjectFormatter(Integer.class, new ObjectFormatter<Integer>() {
+          @Override
+          public String format(Integer integer) {
+            objectFormattingThreads.add(Thread.currentThread().getName());
+            return "Integer " + integer;
+          }
+        })
+        .addObjectFormatter(Date.class, new ObjectFormatter<Date>() {
+          @Override
+          public String format(Date date) {
+            objectFormattingThreads.add(Thread.currentThread().getName());
+            return "Date " + date.getTime();
+          }
+        })
+        .build();
+    logger.i((Object) 1);
+    logger.i(new Date(2));
+    assertTrue("Drain timeout", ZLog.drain(5000));
+
+    assertEquals(2, logsContainer.size());
+    String caller = Thread.currentThread().getName();
+    String threadInfo = "T:" + caller + SystemCompat.lineSeparator;
+    assertEquals(threadInfo + "Integer 1", logsContainer.get(0).msg);
+    assertEquals(threadInfo + "Date 2", logsContainer.get(1).msg);
+    // A custom thread formatter is called when logging.
+    assertEquals(2, threadFormattingThreads.size());
+    assertEquals(caller, threadFormattingThreads.get(0));
+    // An immutable object is formatted later, a mutable one is formatted when logging.
+    assertEquals(2, objectFormattingThreads.size());
+    assertEquals("ZLog-Formatter", objectFormattingThreads.get(0));
+    assertEquals(caller, objectFormattingThreads.get(1));
+  }
+
+  @Test
+  public void testDeferredFormattingMutableInputs() {
+    Logger logger = ZLog.enableDeferredFormatting().build();
+    List<String> list = new ArrayList<>();
+    list.add("a");
+    Object[] args = {"b", 1};
+    logger.i(list);
+    logger.i("%s %d", args);
+    logger.i("%s", list);
+    // Changed after logging, the logs keep the values when logged.
+    list.add("c");
+    args[0] = "changed";
+    assertTrue("Drain timeout", ZLog.drain(5000));
+
+    assertEquals(3, logsContainer.size());
+    assertEquals("[a]", logsContainer.get(0).msg);
+    assertEquals("b 1", logsContainer.get(1).msg);
+    assertEquals("[a]", logsContainer.get(2).msg);
+  }
+
+  @Test
+  public void testDeferredFormattingFailure() {
+    Logger logger = ZLog.enableDeferredFormatting().build();
+    logger.i("%d", "not a number");
+    assertTrue("Drain timeout", ZLog.drain(5000));
+
+    assertEquals(1, logsContainer.size());
+    String msg = logsContainer.get(0).msg;
+    assertTrue(msg, msg.startsWith(
+        "Format log failed: java.util.IllegalFormatConversionException"));
+  }
+
+  @Test
+  public void testDeferredFormattingCapturesThreadName() throws InterruptedException {
+    final Logger logger = ZLog.enableDeferredFormatting().enableThreadInfo().build();
+    Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        logger.i(MESSAGE);
+        Thread.currentThread().setName("renamed");
+      }
+    }, "logging");
+    thread.start();
+    thread.join();
+    assertTrue("Drain timeout", ZLog.drain(5000));
+
+    assertEquals(1, logsContainer.size());
+    assertEquals("Thread: logging" + SystemCompat.lineSeparator + MESSAGE,
+        logsContainer.get(0).msg);
+  }
+
   @Test
   public void testObject() {
     Date date = new Date();
@@ -212,6 +313,61 @@ public class ZLogTest {
     assertTrue("Formatted object log not found", result);
   }
 
+  @Test
+  public void testBoundedContainers() {
+    List<Integer> list = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      list.add(i);
+    }
+    ZLog.i(list);
+    ZLog.i(new int[]{1, 2});
+    ZLog.i((Object) new String[]{"a", "b"});
+
+    assertEquals(3, logsContainer.size());
+    assertTrue(logsContainer.get(0).msg.endsWith(", 99, …(+900 more)]"));
+    assertEquals("[1, 2]", logsContainer.get(1).msg);
+    assertEquals("[a, b]", logsContainer.get(2).msg);
+  }
+
+  @Test
+  public void testMaxMessageLength() throws IOException {
+    File spillFile = File.createTempFile("zlog-spill", ".log");
+    spillFile.deleteOnExit();
+    long oversizedCount = ZLog.oversizedMessageCount();
+    Logger logger = ZLog.maxMessageLength(5).spillOversizedMessagesTo(spillFile).build();
+    logger.i("short");
+    logger.i("0123456789");
+
+    assertEquals(2, logsContainer.size());
+    assertEquals("short", logsContainer.get(0).msg);
+    String msg = logsContainer.get(1).msg;
+    assertTrue(msg, msg.startsWith("01234" + SystemCompat.lineSeparator
+        + "...(truncated, the original message has 10 chars, see #"));
+    assertEquals(oversizedCount + 1, ZLog.oversizedMessageCount());
+
+    String id = msg.substring(msg.indexOf('#') + 1, msg.indexOf(' ', msg.indexOf('#')));
+    // Spilled in background.
+    assertTrue("Drain timeout", ZLog.drain(5000));
+    String spilled = new String(Files.readAllBytes(spillFile.toPath()), "UTF-8");
+    assertTrue(spilled, spilled.contains("#" + id + " "));
+    assertTrue(spilled, spilled.contains(SystemCompat.lineSeparator + "0123456789"));
+  }
+
+  @Test
+  public void testMaxMessageLengthSkipsJsonFormatting() {
+    Logger logger = ZLog.maxMessageLength(8).build();
+    logger.json("{\"a\":1}");
+    logger.json("{\"a\":1,\"b\":2}");
+
+    assertEquals(2, logsContainer.size());
+    // Short enough, formatted.
+    String formatted = logsContainer.get(0).msg;
+    assertTrue(formatted, formatted.contains(SystemCompat.lineSeparator));
+    // Too long, cut without being formatted.
+    assertEquals("{\"a\":1,\"" + SystemCompat.lineSeparator
+        + "...(truncated, the original message has 13 chars)", logsContainer.get(1).msg);
+  }
+
   @Test
   public void testModifyingInterceptor() {
     ZLog.addInterceptor(new Interceptor() {
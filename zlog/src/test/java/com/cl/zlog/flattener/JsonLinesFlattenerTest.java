@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.flattener;
+
+import com.cl.zlog.LogEvent;
+import com.cl.zlog.LogLevel;
+
+import org.junit.Test;
+
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class JsonLinesFlattenerTest {
+
+  @Test
+  public void testFlatten() {
+    JsonLinesFlattener flattener = new JsonLinesFlattener();
+    assertEquals("{\"time\":1000,\"level\":\"INFO\",\"tag\":\"tag\",\"msg\":\"message\"}",
+        flattener.flatten(1000, LogLevel.INFO, "tag", "message").toString());
+
+    StringBuilder sb = new StringBuilder("prefix ");
+    flattener.flattenTo(1000, LogLevel.INFO, "tag", "message", sb);
+    assertEquals("prefix {\"time\":1000,\"level\":\"INFO\",\"tag\":\"tag\",\"msg\":\"message\"}",
+        sb.toString());
+  }
+
+  @Test
+  public void testEscape() {
+    StringBuilder sb = new StringBuilder();
+    JsonLinesFlattener.appendEscaped("a\"b\\c\nd\re\tf\u0001g\u001f中", sb);
+    assertEquals("a\\\"b\\\\c\\nd\\re\\tf\\u0001g\\u001f中", sb.toString());
+
+    sb.setLength(0);
+    JsonLinesFlattener.appendEscaped("\"", sb);
+    assertEquals("\\\"", sb.toString());
+  }
+
+  @Test
+  public void testFlattenEvent() {
+    JsonLinesFlattener flattener = new JsonLinesFlattener();
+    LogEvent event = new LogEvent(1000, LogLevel.DEBUG, "tag", "main\nat A.b()\nmessage",
+        "message", "main", "at A.b()");
+    assertEquals("{\"time\":1000,\"level\":\"DEBUG\",\"tag\":\"tag\",\"thread\":\"main\","
+        + "\"stack\":\"at A.b()\",\"msg\":\"message\"}", event.flatten(flattener));
+
+    StringBuilder sb = new StringBuilder();
+    event.flattenTo(flattener, sb);
+    assertEquals(event.flatten(flattener), sb.toString());
+  }
+
+  @Test
+  public void testDatePattern() {
+    TimeZone defaultTimeZone = TimeZone.getDefault();
+    TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+    try {
+      JsonLinesFlattener flattener = new JsonLinesFlattener("yyyy-MM-dd'T'HH:mm:ss.SSS");
+      assertEquals("{\"time\":\"1970-01-01T00:00:01.000\",\"level\":\"WARN\",\"tag\":\"tag\","
+              + "\"msg\":\"message\"}",
+          flattener.flatten(1000, LogLevel.WARN, "tag", "message").toString());
+      assertEquals(flattener, new JsonLinesFlattener("yyyy-MM-dd'T'HH:mm:ss.SSS"));
+      assertNotEquals(flattener, new JsonLinesFlattener());
+    } finally {
+      TimeZone.setDefault(defaultTimeZone);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDatePatternNeedingEscape() {
+    new JsonLinesFlattener("yyyy'\"'");
+  }
+}
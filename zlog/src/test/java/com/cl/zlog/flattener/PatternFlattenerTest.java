@@ -16,6 +16,8 @@
 
 package com.cl.zlog.flattener;
 
+import com.cl.zlog.LogLevel;
+
 import org.junit.Test;
 
 import java.util.List;
@@ -118,6 +120,21 @@ public class PatternFlattenerTest {
     assertNull(parameterFiller);
   }
 
+  @Test
+  public void testFlatten() {
+    assertEquals("I/my_tag: Simple message",
+        new PatternFlattener("{l}/{t}: {m}").flatten(0, LogLevel.INFO, "my_tag", "Simple message"));
+    assertEquals("Abc INFO|my_tag|my_tag: {f } def",
+        new PatternFlattener("Abc { L }|{t}|{ t}: { m } def").flatten(0, LogLevel.INFO, "my_tag",
+            "{f }"));
+    // Parameters in message should not be replaced.
+    assertEquals("D/my_tag: {t} {l} {m}",
+        new PatternFlattener("{l}/{t}: {m}").flatten(0, LogLevel.DEBUG, "my_tag", "{t} {l} {m}"));
+    assertEquals("1970 {x}",
+        new PatternFlattener("{d yyyy} {x}").flatten(12 * 60 * 60 * 1000L, LogLevel.DEBUG, "tag",
+            "msg"));
+  }
+
   private void assertNoNullAndClass(PatternFlattener.ParameterFiller parameterFiller, Class<?> clazz) {
     assertNotNull("Parameter filler not created", parameterFiller);
     assertTrue("Parameter filler class not expected: " + parameterFiller.getClass(),
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.formatter.border;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DefaultBorderFormatterTest {
+
+  private static final String SEP = System.lineSeparator();
+
+  @Test
+  public void testFormat() {
+    String formatted = new DefaultBorderFormatter().format(
+        new String[]{"T1", null, "line1" + SEP + SEP + "line3"});
+    String[] lines = formatted.split(SEP, -1);
+    assertEquals(7, lines.length);
+    assertEquals('╔', lines[0].charAt(0));
+    assertEquals("║T1", lines[1]);
+    assertEquals('╟', lines[2].charAt(0));
+    assertEquals("║line1", lines[3]);
+    assertEquals("║", lines[4]);
+    assertEquals("║line3", lines[5]);
+    assertEquals('╚', lines[6].charAt(0));
+
+    assertEquals("", new DefaultBorderFormatter().format(new String[]{null}));
+  }
+
+  @Test
+  public void testWrap() {
+    String formatted = new DefaultBorderFormatter(3).format(new String[]{"abcdefg" + SEP + "hi"});
+    String[] lines = formatted.split(SEP, -1);
+    assertEquals(6, lines.length);
+    assertEquals("║abc", lines[1]);
+    assertEquals("║def", lines[2]);
+    assertEquals("║g", lines[3]);
+    assertEquals("║hi", lines[4]);
+
+    // Surrogate pairs are not split.
+    formatted = new DefaultBorderFormatter(2).format(new String[]{"a😀b"});
+    lines = formatted.split(SEP, -1);
+    assertEquals("║a", lines[1]);
+    assertEquals("║😀", lines[2]);
+    assertEquals("║b", lines[3]);
+  }
+}
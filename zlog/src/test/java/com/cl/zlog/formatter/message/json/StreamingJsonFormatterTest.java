@@ -0,0 +1,69 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.formatter.message.json;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StreamingJsonFormatterTest {
+
+  @Test
+  public void testFormat() {
+    StreamingJsonFormatter formatter = new StreamingJsonFormatter();
+    String json = " {\"name\" : \"a \\\" {b}, [c]\", \"list\":[1, 2.5e3,true,null],"
+        + "\"empty\":{ }, \"nested\":{\"x\":[]}} ";
+    assertEquals("{\n"
+        + "    \"name\": \"a \\\" {b}, [c]\",\n"
+        + "    \"list\": [\n"
+        + "        1,\n"
+        + "        2.5e3,\n"
+        + "        true,\n"
+        + "        null\n"
+        + "    ],\n"
+        + "    \"empty\": {},\n"
+        + "    \"nested\": {\n"
+        + "        \"x\": []\n"
+        + "    }\n"
+        + "}", formatter.format(json));
+  }
+
+  @Test
+  public void testInvalid() {
+    StreamingJsonFormatter formatter = new StreamingJsonFormatter();
+    assertEquals("", formatter.format("  "));
+    assertEquals("abc", formatter.format("abc"));
+    assertEquals("{\"a\":[1}", formatter.format("{\"a\":[1}"));
+    assertEquals("{\"a\":\"b}", formatter.format("{\"a\":\"b}"));
+    assertEquals("{}}", formatter.format("{}}"));
+    assertEquals("{} x", formatter.format("{} x"));
+  }
+
+  @Test
+  public void testMaxLength() {
+    StreamingJsonFormatter formatter = new StreamingJsonFormatter(2, 20);
+    String json = "{\"key\":\"" + new String(new char[1000]).replace('\0', 'v') + "\"}";
+    String formatted = formatter.format(json);
+    assertTrue(formatted, formatted.startsWith("{\n  \"key\": \"vvvvvvvv\n...(truncated"));
+    assertTrue(formatted, formatted.endsWith(json.length() + " chars)"));
+
+    formatter = new StreamingJsonFormatter(2, 12);
+    formatted = formatter.format("[1,2,3,4,5,6,7,8,9]");
+    assertTrue(formatted, formatted.startsWith("[\n  1,\n  2,\n\n...(truncated"));
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.formatter.message.object;
+
+import org.junit.Test;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedObjectFormatterTest {
+
+  private final BoundedObjectFormatter defaultFormatter =
+      new BoundedObjectFormatter.Builder().build();
+
+  @Test
+  public void testSameAsToStringWithinLimits() {
+    Object[] array = {1, "a", null, new int[]{1, 2}, new String[]{"b", "c"}};
+    assertEquals(Arrays.deepToString(array), defaultFormatter.format(array));
+
+    double[] doubles = {1.5, -0.0, Double.NaN};
+    assertEquals(Arrays.toString(doubles), defaultFormatter.format(doubles));
+    char[] chars = {'x', 'y'};
+    assertEquals(Arrays.toString(chars), defaultFormatter.format(chars));
+
+    List<Object> list = new ArrayList<>(Arrays.<Object>asList(1, "two", Collections.emptyList()));
+    list.add(list);
+    assertEquals(list.toString(), defaultFormatter.format(list));
+
+    Map<Object, Object> map = new LinkedHashMap<>();
+    map.put("k", Arrays.asList(1, 2));
+    map.put(null, "v");
+    map.put("self", map);
+    assertEquals(map.toString(), defaultFormatter.format(map));
+  }
+
+  @Test
+  public void testMaxElements() {
+    BoundedObjectFormatter formatter = new BoundedObjectFormatter.Builder().maxElements(3).build();
+    List<Integer> list = new ArrayList<>();
+    for (int i = 0; i < 100000; i++) {
+      list.add(i);
+    }
+
+    assertEquals("[0, 1, 2, …(+99997 more)]", formatter.format(list));
+    assertEquals("[0, 1, 2, …(+2 more)]", formatter.format(new long[]{0, 1, 2, 3, 4}));
+    assertEquals("[0, 1, 2]", formatter.format(new byte[]{0, 1, 2}));
+
+    Map<String, Integer> map = new LinkedHashMap<>();
+    for (int i = 0; i < 5; i++) {
+      map.put("k" + i, i);
+    }
+    assertEquals("{k0=0, k1=1, k2=2, …(+2 more)}", formatter.format(map));
+  }
+
+  @Test
+  public void testMaxLength() {
+    BoundedObjectFormatter formatter = new BoundedObjectFormatter.Builder().maxLength(10).build();
+
+    assertEquals("[aaaa, bbb…, …(+1 more)]",
+        formatter.format(new String[]{"aaaa", "bbbbbbbb", "cc"}));
+    assertEquals("[[1, 2, 3], …(+1 more)]",
+        formatter.format(new int[][]{{1, 2, 3}, {4, 5, 6}}));
+  }
+
+  @Test
+  public void testMaxDepth() {
+    BoundedObjectFormatter formatter = new BoundedObjectFormatter.Builder().maxDepth(1).build();
+
+    assertEquals("[1, […(+2 more)], []]", formatter.format(
+        Arrays.asList(1, Arrays.asList(2, Arrays.asList(3)), Collections.emptyList())));
+    assertEquals("{a={…(+1 more)}}", formatter.format(
+        Collections.singletonMap("a", Collections.singletonMap("b", "c"))));
+
+    // Self references are bounded as well.
+    Object[] array = new Object[1];
+    array[0] = array;
+    assertEquals("[[[[[…(+1 more)]]]]]", defaultFormatter.format(array));
+  }
+
+  @Test
+  public void testCollectionShrinkingWhileFormatting() {
+    final ConcurrentLinkedQueue<Object> queue = new ConcurrentLinkedQueue<>();
+    queue.add(new Object() {
+      @Override
+      public String toString() {
+        // Another thread takes the rest while formatting.
+        queue.clear();
+        return "first";
+      }
+    });
+    queue.add("second");
+    queue.add("third");
+    // The iterator has already fetched the second element when the queue is cleared.
+    assertEquals("[first, second]", defaultFormatter.format(queue));
+
+    final Map<String, Object> map = new ConcurrentHashMap<>();
+    for (int i = 0; i < 10; i++) {
+      map.put("k" + i, new Object() {
+        @Override
+        public String toString() {
+          map.clear();
+          return "v";
+        }
+      });
+    }
+    String formatted = defaultFormatter.format(map);
+    assertTrue(formatted, formatted.matches("\\{k\\d=v(, k\\d=v)?}"));
+  }
+
+  @Test
+  public void testCollectionReportingWrongSize() {
+    BoundedObjectFormatter formatter = new BoundedObjectFormatter.Builder().maxElements(2).build();
+    List<Integer> elements = Arrays.asList(1, 2, 3);
+    Collection<Integer> shrunk = new AbstractCollection<Integer>() {
+      @Override
+      public Iterator<Integer> iterator() {
+        return elements.iterator();
+      }
+
+      @Override
+      public int size() {
+        // Stale size, taken before elements were removed.
+        return 2;
+      }
+    };
+    assertEquals("[1, 2, …(+1 more)]", formatter.format(shrunk));
+  }
+
+  @Test
+  public void testCustomToString() {
+    List<Integer> list = new ArrayList<Integer>() {
+      @Override
+      public String toString() {
+        return "Scores(" + size() + ")";
+      }
+    };
+    list.add(1);
+    list.add(2);
+    assertEquals("Scores(2)", defaultFormatter.format(list));
+    // Also kept in other containers.
+    assertEquals("[Scores(2)]", defaultFormatter.format(new Object[]{list}));
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put("scores", list);
+    assertEquals("{scores=Scores(2)}", defaultFormatter.format(map));
+
+    BoundedObjectFormatter formatter = new BoundedObjectFormatter.Builder().maxLength(4).build();
+    assertEquals("Scor…", formatter.format(list));
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.formatter.message.object;
+
+import org.junit.Test;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ReflectionObjectFormatterTest {
+
+  @Retention(RetentionPolicy.RUNTIME)
+  @interface Secret {
+  }
+
+  enum Role {
+    ADMIN
+  }
+
+  static class Base {
+    long id = 7;
+    static String IGNORED_STATIC = "static";
+  }
+
+  static class User extends Base {
+    String name = "alice";
+    transient String cache = "cache";
+    @Secret
+    String password = "123456";
+    Role role = Role.ADMIN;
+    List<Integer> scores = Arrays.asList(1, 2);
+    int[] flags = {1, 0};
+    User friend;
+
+    @Override
+    public String toString() {
+      throw new AssertionError("toString should not be called");
+    }
+  }
+
+  @Test
+  public void testFields() {
+    ReflectionObjectFormatter formatter = new ReflectionObjectFormatter.Builder()
+        .skipFieldsAnnotatedWith(Secret.class)
+        .build();
+    User user = new User();
+
+    String expected =
+        "User{id=7, name=alice, role=ADMIN, scores=[1, 2], flags=[1, 0], friend=null}";
+    assertEquals(expected, formatter.format(user));
+    // Formatted again with the cached fields.
+    assertEquals(expected, formatter.format(user));
+  }
+
+  @Test
+  public void testDepthAndCycle() {
+    ReflectionObjectFormatter formatter = new ReflectionObjectFormatter.Builder()
+        .skipFieldsAnnotatedWith(Secret.class)
+        .maxDepth(1)
+        .build();
+    User alice = new User();
+    User bob = new User();
+    bob.name = "bob";
+    alice.friend = bob;
+    bob.friend = alice;
+
+    assertEquals(
+        "User{id=7, name=alice, role=ADMIN, scores=[1, 2], flags=[1, 0], friend=User{…}}",
+        formatter.format(alice));
+
+    ReflectionObjectFormatter deepFormatter = new ReflectionObjectFormatter.Builder()
+        .skipFieldsAnnotatedWith(Secret.class)
+        .maxDepth(5)
+        .build();
+    assertEquals("User{id=7, name=alice, role=ADMIN, scores=[1, 2], flags=[1, 0], "
+            + "friend=User{id=7, name=bob, role=ADMIN, scores=[1, 2], flags=[1, 0], "
+            + "friend=(cycle User)}}",
+        deepFormatter.format(alice));
+  }
+
+  @Test
+  public void testMaxLength() {
+    ReflectionObjectFormatter formatter = new ReflectionObjectFormatter.Builder()
+        .maxLength(20)
+        .build();
+
+    assertEquals("User{id=7, name=alic…, …(+5 more)}", formatter.format(new User()));
+  }
+
+  static class Team {
+    String name = "core";
+    List<User> members;
+    User[] leads;
+  }
+
+  @Test
+  public void testContainersOfObjects() {
+    ReflectionObjectFormatter formatter = new ReflectionObjectFormatter.Builder()
+        .skipFieldsAnnotatedWith(Secret.class)
+        .maxDepth(3)
+        .build();
+    User alice = new User();
+    alice.scores = null;
+    alice.flags = null;
+    Team team = new Team();
+    team.members = Arrays.asList(alice, null);
+    team.leads = new User[]{alice};
+    alice.friend = alice;
+
+    // User.toString() throws if called.
+    assertEquals("Team{name=core, "
+            + "members=[User{id=7, name=alice, role=ADMIN, scores=null, flags=null, "
+            + "friend=(cycle User)}, null], "
+            + "leads=[User{id=7, name=alice, role=ADMIN, scores=null, flags=null, "
+            + "friend=(cycle User)}]}",
+        formatter.format(team));
+
+    ReflectionObjectFormatter shallowFormatter = new ReflectionObjectFormatter.Builder()
+        .maxDepth(1)
+        .build();
+    assertEquals("Team{name=core, members=[User{…}, null], leads=[User{…}]}",
+        shallowFormatter.format(team));
+  }
+}
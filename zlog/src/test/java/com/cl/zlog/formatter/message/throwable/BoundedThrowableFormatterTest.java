@@ -0,0 +1,92 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.formatter.message.throwable;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.UnknownHostException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedThrowableFormatterTest {
+
+  private static final String SEP = System.lineSeparator();
+
+  @Test
+  public void testSameAsPrintStackTrace() {
+    Throwable tr = new IllegalStateException("outer", new IOException("inner"));
+    StringWriter sw = new StringWriter();
+    tr.printStackTrace(new PrintWriter(sw));
+    // Module names are printed on JDK 9+, but not on Android.
+    String expected = sw.toString().trim().replaceAll("\tat [^ (/]+/", "\tat ");
+    assertEquals(expected, new BoundedThrowableFormatter.Builder().maxFrames(1000).build()
+        .format(tr));
+  }
+
+  @Test
+  public void testMaxFrames() {
+    Throwable tr = recurse(50);
+    String formatted = new BoundedThrowableFormatter.Builder().maxFrames(5).build().format(tr);
+    String[] lines = formatted.split(SEP);
+    assertEquals(7, lines.length);
+    assertTrue(lines[6], lines[6].startsWith("\t... ") && lines[6].endsWith(" more frames"));
+  }
+
+  @Test
+  public void testMaxCauseDepth() {
+    Throwable tr = new RuntimeException("1", new RuntimeException("2",
+        new RuntimeException("3")));
+    String formatted = new BoundedThrowableFormatter.Builder().maxCauseDepth(2).build().format(tr);
+    assertTrue(formatted.contains("Caused by: java.lang.RuntimeException: 2"));
+    assertFalse(formatted.contains("Caused by: java.lang.RuntimeException: 3"));
+    assertTrue(formatted.endsWith("\t... more causes omitted"));
+  }
+
+  @Test
+  public void testMaxLength() {
+    String formatted = new BoundedThrowableFormatter.Builder().maxLength(100).build()
+        .format(recurse(50));
+    assertEquals(100 + SEP.length() + "\t... truncated".length(), formatted.length());
+    assertTrue(formatted.endsWith(SEP + "\t... truncated"));
+  }
+
+  @Test
+  public void testExcludePackages() {
+    String formatted = new BoundedThrowableFormatter.Builder()
+        .excludePackages("org.junit.", "sun.", "jdk.", "java.lang.reflect.")
+        .build()
+        .format(new RuntimeException());
+    assertFalse(formatted, formatted.contains("org.junit."));
+    assertTrue(formatted, formatted.contains(" excluded"));
+    assertTrue(formatted, formatted.contains("testExcludePackages"));
+  }
+
+  @Test
+  public void testUnknownHost() {
+    assertEquals("", new BoundedThrowableFormatter.Builder().build()
+        .format(new IOException(new UnknownHostException())));
+  }
+
+  private static Throwable recurse(int depth) {
+    return depth == 0 ? new RuntimeException("deep") : recurse(depth - 1);
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.formatter.message.throwable;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DedupThrowableFormatterTest {
+
+  private static final String SEP = System.lineSeparator();
+
+  @Test
+  public void testDedup() {
+    DedupThrowableFormatter formatter = new DedupThrowableFormatter();
+    String[] formatted = new String[3];
+    for (int i = 0; i < 3; i++) {
+      formatted[i] = formatter.format(newException("Connection reset " + i));
+    }
+    assertTrue(formatted[0], formatted[0].startsWith("#1 java.io.IOException: Connection reset 0"));
+    assertTrue(formatted[0], formatted[0].contains("newException"));
+    assertEquals("java.io.IOException: Connection reset 1" + SEP
+        + "\t... same as #1, seen 2 times", formatted[1]);
+    assertEquals("java.io.IOException: Connection reset 2" + SEP
+        + "\t... same as #1, seen 3 times", formatted[2]);
+
+    // Different stack trace.
+    String other = formatter.format(new IOException("Connection reset"));
+    assertTrue(other, other.startsWith("#2 java.io.IOException"));
+  }
+
+  @Test
+  public void testWindowExpired() throws InterruptedException {
+    DedupThrowableFormatter formatter = new DedupThrowableFormatter(1);
+    String[] formatted = new String[2];
+    for (int i = 0; i < 2; i++) {
+      formatted[i] = formatter.format(newException("msg"));
+      Thread.sleep(5);
+    }
+    assertTrue(formatted[0], formatted[0].startsWith("#1 java.io.IOException: msg"));
+    assertEquals(formatted[0], formatted[1]);
+  }
+
+  @Test
+  public void testWindowExpiredRendersNewThrowable() throws InterruptedException {
+    DedupThrowableFormatter formatter = new DedupThrowableFormatter(1);
+    String[] formatted = new String[2];
+    for (int i = 0; i < 2; i++) {
+      // Same fingerprint and first line, but different causes.
+      formatted[i] = formatter.format(
+          new IOException("msg", new IllegalStateException("cause " + i)));
+      Thread.sleep(5);
+    }
+    assertTrue(formatted[0], formatted[0].contains("cause 0"));
+    assertTrue(formatted[1], formatted[1].startsWith("#1 java.io.IOException: msg"));
+    assertTrue(formatted[1], formatted[1].contains("cause 1"));
+    assertFalse(formatted[1], formatted[1].contains("cause 0"));
+  }
+
+  @Test
+  public void testWindowExpiredReusesSameThrowable() throws InterruptedException {
+    final int[] renderCount = new int[1];
+    DedupThrowableFormatter formatter = new DedupThrowableFormatter(1, 64, 8,
+        new ThrowableFormatter() {
+          @Override
+          public String format(Throwable tr) {
+            renderCount[0]++;
+            return tr.toString();
+          }
+        });
+    IOException exception = newException("msg");
+    formatter.format(exception);
+    Thread.sleep(5);
+    assertEquals("#1 java.io.IOException: msg", formatter.format(exception));
+    assertEquals(1, renderCount[0]);
+  }
+
+  @Test
+  public void testEvictEldest() {
+    DedupThrowableFormatter formatter = new DedupThrowableFormatter(60000, 1);
+    String formatted = null;
+    for (int i = 0; i < 2; i++) {
+      formatted = formatter.format(newException("a"));
+      formatter.format(new IllegalStateException("b"));
+    }
+    assertTrue(formatted, formatted.startsWith("#3 java.io.IOException: a"));
+  }
+
+  private static IOException newException(String message) {
+    return new IOException(message);
+  }
+}
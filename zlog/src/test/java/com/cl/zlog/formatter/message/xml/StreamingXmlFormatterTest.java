@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.formatter.message.xml;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StreamingXmlFormatterTest {
+
+  private static final String SEP = System.lineSeparator();
+
+  @Test
+  public void testFormat() {
+    StreamingXmlFormatter formatter = new StreamingXmlFormatter(2);
+    String xml = "<?xml version=\"1.0\"?><!-- comment --><root a=\"x>y\">"
+        + "<name>  Tom &amp; Jerry </name><empty></empty><self/>"
+        + "<list><item id='1'>one</item><item><![CDATA[<two>]]></item></list>"
+        + "mixed</root>";
+    assertEquals("<?xml version=\"1.0\"?>" + SEP
+        + "<!-- comment -->" + SEP
+        + "<root a=\"x>y\">" + SEP
+        + "  <name>Tom &amp; Jerry</name>" + SEP
+        + "  <empty></empty>" + SEP
+        + "  <self/>" + SEP
+        + "  <list>" + SEP
+        + "    <item id='1'>one</item>" + SEP
+        + "    <item>" + SEP
+        + "      <![CDATA[<two>]]>" + SEP
+        + "    </item>" + SEP
+        + "  </list>" + SEP
+        + "  mixed" + SEP
+        + "</root>", formatter.format(xml));
+  }
+
+  @Test
+  public void testDoctype() {
+    StreamingXmlFormatter formatter = new StreamingXmlFormatter(2);
+    assertEquals("<!DOCTYPE a [<!ENTITY e \"v\">]>" + SEP + "<a>&e;</a>",
+        formatter.format("<!DOCTYPE a [<!ENTITY e \"v\">]>\n<a>&e;</a>\n"));
+  }
+
+  @Test
+  public void testInvalid() {
+    StreamingXmlFormatter formatter = new StreamingXmlFormatter();
+    assertEquals("", formatter.format(" "));
+    assertEquals("<a><b></a>", formatter.format("<a><b></a>"));
+    assertEquals("<a></a></b>", formatter.format("<a></a></b>"));
+    assertEquals("<a><!-- x</a>", formatter.format("<a><!-- x</a>"));
+    assertEquals("<a", formatter.format("<a"));
+  }
+
+  @Test
+  public void testMaxLength() {
+    StreamingXmlFormatter formatter = new StreamingXmlFormatter(2, 10);
+    String xml = "<a>" + new String(new char[1000]).replace('\0', 'x') + "</a>";
+    String formatted = formatter.format(xml);
+    assertTrue(formatted, formatted.startsWith("<a>xxxxxxx" + SEP + "...(truncated"));
+    assertTrue(formatted, formatted.endsWith(xml.length() + " chars)"));
+  }
+}
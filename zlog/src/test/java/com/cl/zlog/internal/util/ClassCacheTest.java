@@ -0,0 +1,55 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.internal.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import kotlin.jvm.functions.Function1;
+
+import static org.junit.Assert.assertEquals;
+
+public class ClassCacheTest {
+
+  private static final Class<?>[] CLASSES = {
+      String.class, Integer.class, Long.class, Short.class, Byte.class, Character.class,
+      Boolean.class, Float.class, Double.class, Object.class, List.class, ArrayList.class,
+      StringBuilder.class, Thread.class, Runnable.class, Exception.class, Error.class,
+      Throwable.class, Number.class, Class.class, ClassCacheTest.class, Test.class
+  };
+
+  @Test
+  public void testComputedOncePerClass() {
+    final List<Class<?>> computed = new ArrayList<>();
+    ClassCache<String> cache = new ClassCache<>(new Function1<Class<?>, String>() {
+      @Override
+      public String invoke(Class<?> clazz) {
+        computed.add(clazz);
+        return clazz.getSimpleName();
+      }
+    });
+    // More classes than the initial capacity, so the table grows.
+    for (int round = 0; round < 2; round++) {
+      for (Class<?> clazz : CLASSES) {
+        assertEquals(clazz.getSimpleName(), cache.get(clazz));
+      }
+    }
+    assertEquals(CLASSES.length, computed.size());
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.internal.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class StackTraceUtilTest {
+
+  @Test
+  public void testCaptureRealStackTrace() {
+    assertNotNull("StackWalker should be available on JVM", StackWalkerCapture.INSTANCE);
+
+    // The test classes are in the package of ZLog, so they are skipped too.
+    StackTraceElement[] captured = StackTraceUtil.INSTANCE.captureRealStackTrace(null, 3);
+    StackTraceElement[] expected = StackTraceUtil.INSTANCE.getCroppedRealStackTrack(
+        new Throwable().getStackTrace(), null, 3);
+    assertEquals(3, captured.length);
+    assertArrayEquals(expected, captured);
+
+    captured = StackTraceUtil.INSTANCE.captureRealStackTrace("jdk.internal.", 0);
+    expected = StackTraceUtil.INSTANCE.getCroppedRealStackTrack(
+        new Throwable().getStackTrace(), "jdk.internal.", 0);
+    assertArrayEquals(expected, captured);
+  }
+
+  @Test
+  public void testGetCroppedRealStackTrack() {
+    StackTraceElement[] stackTrace = {
+        new StackTraceElement("com.cl.zlog.Logger", "println", "Logger.kt", 1),
+        new StackTraceElement("com.app.LogWrapper", "d", "LogWrapper.java", 2),
+        new StackTraceElement("com.app.Main", "main", "Main.java", 3),
+        new StackTraceElement("java.lang.Thread", "run", "Thread.java", 4)
+    };
+    assertArrayEquals(new StackTraceElement[]{stackTrace[1]},
+        StackTraceUtil.INSTANCE.getCroppedRealStackTrack(stackTrace, null, 1));
+    assertArrayEquals(new StackTraceElement[]{stackTrace[2], stackTrace[3]},
+        StackTraceUtil.INSTANCE.getCroppedRealStackTrack(stackTrace, "com.app.LogWrapper", 0));
+    assertEquals(0, StackTraceUtil.INSTANCE.getCroppedRealStackTrack(
+        new StackTraceElement[]{stackTrace[0]}, null, 2).length);
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.internal.util;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+
+public class TimestampFormatterTest {
+
+  private static final String[] PATTERNS = {
+      "yyyy-MM-dd HH:mm:ss",
+      "yyyy-MM-dd HH:mm:ss.SSS",
+      "yy/M/d H:mm:ss.SSS",
+      "HH:mm:ss 'ss SSS' SSS",
+      "ss",
+      "EEE, d MMM yyyy HH:mm:ss Z",
+      // Fallback.
+      "s.SS",
+      "yyyy-MM-dd",
+  };
+
+  @Test
+  public void testSameAsSimpleDateFormat() {
+    Random random = new Random(42);
+    for (String zone : new String[]{"UTC", "Asia/Shanghai", "Asia/Kolkata", "America/New_York"}) {
+      TimeZone timeZone = TimeZone.getTimeZone(zone);
+      for (String pattern : PATTERNS) {
+        TimestampFormatter formatter = new TimestampFormatter(pattern, timeZone, Locale.US);
+        SimpleDateFormat sdf = new SimpleDateFormat(pattern, Locale.US);
+        sdf.setTimeZone(timeZone);
+        long time = 1700000000000L;
+        for (int i = 0; i < 2000; i++) {
+          // Mostly in the same minute, sometimes jump far.
+          time += i % 100 == 0 ? random.nextInt() * 1000L : random.nextInt(5000);
+          String expected = sdf.format(new Date(time));
+          assertEquals(pattern + " " + zone, expected, formatter.format(time));
+          StringBuilder sb = new StringBuilder("prefix");
+          formatter.formatTo(time, sb);
+          assertEquals("prefix" + expected, sb.toString());
+        }
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadPattern() {
+    new TimestampFormatter("yyyy-MM-dd qq");
+  }
+}
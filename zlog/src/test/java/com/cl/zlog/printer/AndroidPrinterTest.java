@@ -27,9 +27,14 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class AndroidPrinterTest {
 
@@ -40,7 +45,7 @@ public class AndroidPrinterTest {
     ZLogUtil.beforeTest();
     ZLog.init(LogLevel.ALL, new AndroidPrinter() {
       @Override
-      void printChunk(int logLevel, String tag, String msg) {
+      protected void printChunk(int logLevel, String tag, String msg) {
         logContainer.add(new LogItem(logLevel, tag, msg));
       }
     });
@@ -79,14 +84,162 @@ public class AndroidPrinterTest {
     ZLog.d(msg);
     assertEquals(4, logContainer.size());
 
-    int start = 0;
-    int end = 0;
-    for (int i = 0; end < length; i++) {
-      end = AndroidPrinter.adjustEnd(msg, start, Math.min(start + messageChunkLength, length));
-      String chunk = msg.substring(start, end);
+    // No line separator in the message, every chunk but the last one is full.
+    for (int i = 0; i < 4; i++) {
+      int start = i * messageChunkLength;
+      String chunk = msg.substring(start, Math.min(start + messageChunkLength, length));
       AssertUtil.assertHasLog(logContainer, i, chunk);
+    }
+  }
 
-      start = end;
+  @Test
+  public void testPrintLongMessageSplitAtLineSeparator() throws Exception {
+    int lineLength = AndroidPrinter.DEFAULT_MAX_CHUNK_SIZE / 4;
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 5; i++) {
+      if (i > 0) {
+        sb.append('\n');
+      }
+      for (int j = 0; j < lineLength; j++) {
+        sb.append((char) ('a' + i));
+      }
     }
+    String msg = sb.toString();
+    ZLog.d(msg);
+    assertEquals(2, logContainer.size());
+
+    // The first chunk ends at the last line separator within the limit, which is not printed.
+    int firstEnd = 3 * lineLength + 2;
+    AssertUtil.assertHasLog(logContainer, 0, msg.substring(0, firstEnd));
+    AssertUtil.assertHasLog(logContainer, 1, msg.substring(firstEnd + 1));
+  }
+
+  @Test
+  public void testPrintCjkMessage() throws Exception {
+    // 3 bytes per char in UTF-8.
+    int length = AndroidPrinter.DEFAULT_MAX_CHUNK_SIZE;
+    StringBuilder sb = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      sb.append('\u4e2d');
+    }
+    String msg = sb.toString();
+    ZLog.d(msg);
+    // At most 1333 chars in a chunk.
+    assertEquals(4, logContainer.size());
+
+    StringBuilder printed = new StringBuilder();
+    for (LogItem logItem : logContainer) {
+      assertTrue(logItem.msg.getBytes("UTF-8").length <= AndroidPrinter.DEFAULT_MAX_CHUNK_SIZE);
+      printed.append(logItem.msg);
+    }
+    assertEquals(msg, printed.toString());
+  }
+
+  @Test
+  public void testCoalesce() throws Exception {
+    final CountDownLatch entered = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final List<LogItem> printed = Collections.synchronizedList(new ArrayList<LogItem>());
+    int maxChunkSize = AndroidPrinter.DEFAULT_MAX_CHUNK_SIZE;
+    AndroidPrinter printer = new AndroidPrinter(false, maxChunkSize, true) {
+      @Override
+      protected void printChunk(int logLevel, String tag, String msg) {
+        if (msg.equals("first")) {
+          // Hold the worker, so the following logs are queued up.
+          entered.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        printed.add(new LogItem(logLevel, tag, msg));
+      }
+    };
+    printer.println(LogLevel.DEBUG, "tag", "first");
+    assertTrue(entered.await(5, TimeUnit.SECONDS));
+    printer.println(LogLevel.DEBUG, "tag", "a");
+    printer.println(LogLevel.DEBUG, "tag", "b");
+    printer.println(LogLevel.DEBUG, "tag", "c");
+    printer.println(LogLevel.DEBUG, "other", "d");
+    printer.println(LogLevel.INFO, "other", "e");
+    printer.println(LogLevel.INFO, "other", "f");
+    release.countDown();
+    assertTrue("Drain timeout", printer.drain(5000));
+
+    assertEquals(4, printed.size());
+    assertLog(printed.get(0), LogLevel.DEBUG, "tag", "first");
+    assertLog(printed.get(1), LogLevel.DEBUG, "tag", "a\nb\nc");
+    assertLog(printed.get(2), LogLevel.DEBUG, "other", "d");
+    assertLog(printed.get(3), LogLevel.INFO, "other", "e\nf");
+  }
+
+  @Test
+  public void testCoalesceWithinChunk() throws Exception {
+    final CountDownLatch entered = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final List<String> printed = Collections.synchronizedList(new ArrayList<String>());
+    AndroidPrinter printer = new AndroidPrinter(false, 10, true) {
+      @Override
+      protected void printChunk(int logLevel, String tag, String msg) {
+        if (msg.equals("first")) {
+          entered.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        printed.add(msg);
+      }
+    };
+    printer.println(LogLevel.DEBUG, "tag", "first");
+    assertTrue(entered.await(5, TimeUnit.SECONDS));
+    printer.println(LogLevel.DEBUG, "tag", "1234");
+    printer.println(LogLevel.DEBUG, "tag", "5678");
+    printer.println(LogLevel.DEBUG, "tag", "abcde");
+    // Too long to be coalesced, separated into chunks.
+    printer.println(LogLevel.DEBUG, "tag", "0123456789ABC");
+    release.countDown();
+    assertTrue("Drain timeout", printer.drain(5000));
+
+    assertEquals(Arrays.asList("first", "1234\n5678", "abcde", "0123456789", "ABC"), printed);
+  }
+
+  @Test
+  public void testCoalesceDrain() throws Exception {
+    final List<String> printed = Collections.synchronizedList(new ArrayList<String>());
+    int maxChunkSize = AndroidPrinter.DEFAULT_MAX_CHUNK_SIZE;
+    AndroidPrinter printer = new AndroidPrinter(false, maxChunkSize, true) {
+      @Override
+      protected void printChunk(int logLevel, String tag, String msg) {
+        printed.add(msg);
+      }
+    };
+    assertTrue("Drain before any log", printer.drain(0));
+
+    int count = 10000;
+    for (int i = 0; i < count; i++) {
+      printer.println(LogLevel.DEBUG, "tag", "message " + i);
+    }
+    assertTrue("Drain timeout", printer.drain(5000));
+
+    // All the logs printed in order, no matter how they are coalesced.
+    List<String> lines = new ArrayList<>();
+    synchronized (printed) {
+      for (String chunk : printed) {
+        lines.addAll(Arrays.asList(chunk.split("\n")));
+      }
+    }
+    assertEquals(count, lines.size());
+    for (int i = 0; i < count; i++) {
+      assertEquals("message " + i, lines.get(i));
+    }
+  }
+
+  private static void assertLog(LogItem log, int level, String tag, String msg) {
+    assertEquals(level, log.level);
+    assertEquals(tag, log.tag);
+    assertEquals(msg, log.msg);
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.printer;
+
+import com.cl.zlog.LogLevel;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UnsupportedEncodingException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncConsolePrinterTest {
+
+  @Test
+  public void testBatchedWrites() throws UnsupportedEncodingException {
+    CountingOutputStream output = new CountingOutputStream();
+    AsyncConsolePrinter printer = new AsyncConsolePrinter.Builder()
+        .output(output)
+        .flushIntervalMillis(10 * 1000)
+        .build();
+    int count = 1000;
+    for (int i = 0; i < count; i++) {
+      printer.println(LogLevel.INFO, "tag", "message " + i + " \u4e2d\u6587");
+    }
+    assertTrue("Drain timeout", printer.drain(5000));
+
+    String[] lines = output.toString("UTF-8").split(System.getProperty("line.separator"));
+    assertEquals(count, lines.length);
+    for (int i = 0; i < count; i++) {
+      assertTrue(lines[i].endsWith("message " + i + " \u4e2d\u6587"));
+    }
+    assertTrue("Too many writes: " + output.writes, output.writes < count / 10);
+  }
+
+  @Test
+  public void testFlushInterval() throws Exception {
+    CountingOutputStream output = new CountingOutputStream();
+    AsyncConsolePrinter printer = new AsyncConsolePrinter.Builder()
+        .output(output)
+        .flushIntervalMillis(10)
+        .build();
+    printer.println(LogLevel.INFO, "tag", "message");
+    long deadline = System.currentTimeMillis() + 5000;
+    while (output.size() == 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    assertTrue(output.toString("UTF-8").contains("message"));
+  }
+
+  private static class CountingOutputStream extends ByteArrayOutputStream {
+
+    volatile int writes;
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+      writes++;
+      super.write(b, off, len);
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.printer;
+
+import com.cl.zlog.AssertUtil;
+import com.cl.zlog.ContainerPrinter;
+import com.cl.zlog.LogEvent;
+import com.cl.zlog.LogItem;
+import com.cl.zlog.LogLevel;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class BacktracePrinterTest {
+
+  private List<LogItem> logContainer = new ArrayList<>();
+
+  private ContainerPrinter containerPrinter;
+
+  @Before
+  public void setup() {
+    containerPrinter = new ContainerPrinter(logContainer);
+  }
+
+  @Test
+  public void testOnlyPrintBacktraceWhenTriggered() {
+    BacktracePrinter printer = new BacktracePrinter.Builder(containerPrinter).build();
+    printer.println(LogLevel.DEBUG, "tag", "debug 1");
+    printer.println(LogLevel.INFO, "tag", "info 1");
+    AssertUtil.assertNoLog(logContainer);
+
+    printer.println(LogLevel.ERROR, "tag", "error 1");
+    assertEquals(3, logContainer.size());
+    AssertUtil.assertHasLog(logContainer, 0, "debug 1");
+    AssertUtil.assertHasLog(logContainer, 1, "info 1");
+    AssertUtil.assertHasLog(logContainer, 2, "error 1");
+
+    // The window is consumed.
+    printer.println(LogLevel.ERROR, "tag", "error 2");
+    assertEquals(4, logContainer.size());
+    AssertUtil.assertHasLog(logContainer, 3, "error 2");
+  }
+
+  @Test
+  public void testWindowPerTag() {
+    BacktracePrinter printer = new BacktracePrinter.Builder(containerPrinter).build();
+    printer.println(LogLevel.DEBUG, "tag1", "debug 1");
+    printer.println(LogLevel.DEBUG, "tag2", "debug 2");
+    printer.println(LogLevel.ERROR, "tag2", "error 2");
+    assertEquals(2, logContainer.size());
+    AssertUtil.assertHasLog(logContainer, 0, "debug 2");
+    AssertUtil.assertHasLog(logContainer, 1, "error 2");
+  }
+
+  @Test
+  public void testMaxRecords() {
+    BacktracePrinter printer = new BacktracePrinter.Builder(containerPrinter)
+        .maxRecords(2)
+        .build();
+    for (int i = 0; i < 5; i++) {
+      printer.println(LogLevel.DEBUG, "tag", "debug " + i);
+    }
+    printer.println(LogLevel.ERROR, "tag", "error");
+    assertEquals(3, logContainer.size());
+    AssertUtil.assertHasLog(logContainer, 0, "debug 3");
+    AssertUtil.assertHasLog(logContainer, 1, "debug 4");
+  }
+
+  @Test
+  public void testMaxAge() {
+    BacktracePrinter printer = new BacktracePrinter.Builder(containerPrinter)
+        .maxAgeMillis(1000)
+        .build();
+    printer.println(new LogEvent(1000, LogLevel.DEBUG, "tag", "too old"));
+    printer.println(new LogEvent(4500, LogLevel.DEBUG, "tag", "recent"));
+    printer.println(new LogEvent(5000, LogLevel.ERROR, "tag", "error"));
+    assertEquals(2, logContainer.size());
+    AssertUtil.assertHasLog(logContainer, 0, "recent");
+    AssertUtil.assertHasLog(logContainer, 1, "error");
+  }
+}
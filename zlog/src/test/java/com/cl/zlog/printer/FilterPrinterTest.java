@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.printer;
+
+import com.cl.zlog.ContainerPrinter;
+import com.cl.zlog.LogItem;
+import com.cl.zlog.LogLevel;
+import com.cl.zlog.ZLog;
+import com.cl.zlog.ZLogUtil;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class FilterPrinterTest {
+
+  List<LogItem> logcat = new ArrayList<>();
+  List<LogItem> file = new ArrayList<>();
+  List<LogItem> remote = new ArrayList<>();
+
+  @Before
+  public void setup() {
+    ZLogUtil.beforeTest();
+    ZLog.init(LogLevel.ALL,
+        new ContainerPrinter(logcat),
+        new FilterPrinter(new ContainerPrinter(file), LogLevel.INFO),
+        new FilterPrinter(new ContainerPrinter(remote), LogLevel.WARN,
+            new FilterPrinter.TagFilter() {
+              @Override
+              public boolean accept(String tag) {
+                return !tag.startsWith("local");
+              }
+            }));
+  }
+
+  @Test
+  public void testDispatch() {
+    ZLog.v("verbose");
+    ZLog.i("info");
+    ZLog.e("error");
+    ZLog.tag("local-tag").build().e("local error");
+
+    assertEquals(4, logcat.size());
+    assertEquals(3, file.size());
+    assertEquals(1, remote.size());
+    assertEquals("error", remote.get(0).msg);
+  }
+
+  @Test
+  public void testSkipFormatting() {
+    ZLogUtil.beforeTest();
+    ZLog.init(LogLevel.ALL, new FilterPrinter(new ContainerPrinter(file), LogLevel.WARN));
+    CountingObject object = new CountingObject();
+
+    ZLog.i(object);
+    assertEquals(0, object.formatted);
+
+    ZLog.w(object);
+    assertEquals(1, object.formatted);
+    assertEquals(1, file.size());
+  }
+
+  private static class CountingObject {
+
+    int formatted;
+
+    @Override
+    public String toString() {
+      formatted++;
+      return "object";
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.printer;
+
+import com.cl.zlog.LogLevel;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PrinterSetTest {
+
+  @Test
+  public void testSlowPrinterIsolated() {
+    CollectingPrinter fast = new CollectingPrinter(0);
+    CollectingPrinter slow = new CollectingPrinter(50);
+    PrinterSet printerSet = new PrinterSet.Builder()
+        .add(fast)
+        .add(slow, 2, PrinterSet.OVERFLOW_DROP_NEWEST)
+        .fanOut()
+        .build();
+    int count = 100;
+    long start = System.currentTimeMillis();
+    for (int i = 0; i < count; i++) {
+      printerSet.println(LogLevel.INFO, "tag", "message " + i);
+    }
+    assertTrue("Blocked by slow printer", System.currentTimeMillis() - start < 1000);
+    assertTrue("Drain timeout", printerSet.drain(5000));
+
+    assertEquals(count, fast.msgs.size());
+    for (int i = 0; i < count; i++) {
+      assertEquals("message " + i, fast.msgs.get(i));
+    }
+    List<PrinterSet.LaneStats> stats = printerSet.getLaneStats();
+    assertEquals(count, stats.get(0).printedCount);
+    assertEquals(0, stats.get(0).droppedCount);
+    assertEquals(count, stats.get(1).printedCount + stats.get(1).droppedCount);
+    assertEquals(slow.msgs.size(), stats.get(1).printedCount);
+    assertTrue(stats.get(1).maxLatencyNanos >= 50 * 1000 * 1000L);
+  }
+
+  @Test
+  public void testCircuitBreaker() throws InterruptedException {
+    CollectingPrinter slow = new CollectingPrinter(20);
+    PrinterSet printerSet = new PrinterSet.Builder()
+        .add(slow, 100, PrinterSet.OVERFLOW_BLOCK)
+        .fanOut()
+        .circuitBreaker(10, 2, 60 * 1000)
+        .build();
+    for (int i = 0; i < 2; i++) {
+      printerSet.println(LogLevel.INFO, "tag", "message " + i);
+    }
+    assertTrue("Drain timeout", printerSet.drain(5000));
+    for (int i = 2; i < 10; i++) {
+      printerSet.println(LogLevel.INFO, "tag", "message " + i);
+    }
+
+    PrinterSet.LaneStats stats = printerSet.getLaneStats().get(0);
+    assertTrue(stats.circuitOpen);
+    assertEquals(2, stats.printedCount);
+    assertEquals(8, stats.shedCount);
+  }
+
+  private static class CollectingPrinter implements Printer {
+
+    final List<String> msgs = new CopyOnWriteArrayList<>();
+
+    private final long delayMillis;
+
+    CollectingPrinter(long delayMillis) {
+      this.delayMillis = delayMillis;
+    }
+
+    @Override
+    public void println(int logLevel, String tag, String msg) {
+      if (delayMillis > 0) {
+        try {
+          Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      msgs.add(msg);
+    }
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.printer.file;
+
+import com.cl.zlog.LogLevel;
+import com.cl.zlog.ZLog;
+import com.cl.zlog.flattener.PatternFlattener;
+import com.cl.zlog.printer.file.naming.ChangelessFileNameGenerator;
+import com.cl.zlog.printer.file.writer.SimpleWriter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FilePrinterTest {
+
+  String logPath = "build/test/fileprinter";
+
+  @Before
+  public void setup() {
+    File folder = new File(logPath);
+    File[] files = folder.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+  }
+
+  @Test
+  public void testDrain() throws IOException {
+    FilePrinter filePrinter = new FilePrinter.Builder(logPath)
+        .fileNameGenerator(new ChangelessFileNameGenerator("log"))
+        .build();
+    int count = 2000;
+    for (int i = 0; i < count; i++) {
+      filePrinter.println(LogLevel.INFO, "tag", "message " + i);
+    }
+    assertTrue("Drain timeout", ZLog.drain(10000));
+    assertEquals(count, countLines(new File(logPath, "log")));
+  }
+
+  @Test
+  public void testAppendFlattenedToBuffer() throws IOException {
+    FilePrinter filePrinter = new FilePrinter.Builder(logPath)
+        .fileNameGenerator(new ChangelessFileNameGenerator("log"))
+        .flattener(new PatternFlattener("{l}/{t}: {m}"))
+        .build();
+    filePrinter.println(LogLevel.INFO, "tag", "message");
+    filePrinter.println(LogLevel.ERROR, "tag", "second message");
+    assertTrue("Drain timeout", filePrinter.drain(10000));
+
+    BufferedReader reader = new BufferedReader(new FileReader(new File(logPath, "log")));
+    try {
+      assertEquals("I/tag: message", reader.readLine());
+      assertEquals("E/tag: second message", reader.readLine());
+      assertNull(reader.readLine());
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Test
+  public void testSubclassAppendLogNotBypassed() throws IOException {
+    FilePrinter filePrinter = new FilePrinter.Builder(logPath)
+        .fileNameGenerator(new ChangelessFileNameGenerator("log"))
+        .flattener(new PatternFlattener("{l}/{t}: {m}"))
+        .writer(new SimpleWriter() {
+          @Override
+          public void appendLog(String log) {
+            super.appendLog(log.replace("secret", "******"));
+          }
+        })
+        .build();
+    filePrinter.println(LogLevel.INFO, "tag", "password is secret");
+    assertTrue("Drain timeout", filePrinter.drain(10000));
+
+    BufferedReader reader = new BufferedReader(new FileReader(new File(logPath, "log")));
+    try {
+      assertEquals("I/tag: password is ******", reader.readLine());
+      assertNull(reader.readLine());
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Test
+  public void testSubclassFlattenNotBypassed() throws IOException {
+    FilePrinter filePrinter = new FilePrinter.Builder(logPath)
+        .fileNameGenerator(new ChangelessFileNameGenerator("log"))
+        .flattener(new PatternFlattener("{l}/{t}: {m}") {
+          @Override
+          public CharSequence flatten(long timeMillis, int logLevel, String tag, String message) {
+            return super.flatten(timeMillis, logLevel, tag, message.replace("secret", "******"));
+          }
+        })
+        .build();
+    filePrinter.println(LogLevel.INFO, "tag", "password is secret");
+    assertTrue("Drain timeout", filePrinter.drain(10000));
+
+    BufferedReader reader = new BufferedReader(new FileReader(new File(logPath, "log")));
+    try {
+      assertEquals("I/tag: password is ******", reader.readLine());
+      assertNull(reader.readLine());
+    } finally {
+      reader.close();
+    }
+  }
+
+  static int countLines(File file) throws IOException {
+    int lines = 0;
+    BufferedReader reader = new BufferedReader(new FileReader(file));
+    try {
+      while (reader.readLine() != null) {
+        lines++;
+      }
+    } finally {
+      reader.close();
+    }
+    return lines;
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.printer.file;
+
+import com.cl.zlog.LogLevel;
+import com.cl.zlog.ZLog;
+import com.cl.zlog.flattener.ClassicFlattener;
+import com.cl.zlog.printer.file.naming.ChangelessFileNameGenerator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MergedLogReaderTest {
+
+  String logPath = "build/test/merge";
+
+  @Before
+  public void setup() {
+    File folder = new File(logPath);
+    File[] files = folder.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    folder.mkdirs();
+  }
+
+  @Test
+  public void testMergeByTime() throws IOException {
+    File main = write("log@main",
+        "2026-10-19 10:00:00.100 I/tag: main 1",
+        "2026-10-19 10:00:00.300 I/tag: main 2",
+        "  continued line of main 2",
+        "2026-10-19 10:00:01.000 I/tag: main 3");
+    File remote = write("log@remote",
+        "2026-10-19 10:00:00.200 I/tag: remote 1",
+        "2026-10-19 10:00:00.300 I/tag: remote 2",
+        "2026-10-19 10:00:02.000 I/tag: remote 3");
+
+    MergedLogReader reader = new MergedLogReader(Arrays.asList(main, remote));
+    List<String> logs = new ArrayList<>();
+    String log;
+    while ((log = reader.readLog()) != null) {
+      logs.add(log);
+    }
+    reader.close();
+
+    assertEquals(Arrays.asList(
+        "2026-10-19 10:00:00.100 I/tag: main 1",
+        "2026-10-19 10:00:00.200 I/tag: remote 1",
+        "2026-10-19 10:00:00.300 I/tag: main 2\n  continued line of main 2",
+        "2026-10-19 10:00:00.300 I/tag: remote 2",
+        "2026-10-19 10:00:01.000 I/tag: main 3",
+        "2026-10-19 10:00:02.000 I/tag: remote 3"), logs);
+  }
+
+  @Test
+  public void testMultiProcessSegments() throws IOException {
+    FilePrinter main = new FilePrinter.Builder(logPath)
+        .fileNameGenerator(new ChangelessFileNameGenerator("log"))
+        .flattener(new ClassicFlattener())
+        .multiProcess("com.example")
+        .build();
+    FilePrinter remote = new FilePrinter.Builder(logPath)
+        .fileNameGenerator(new ChangelessFileNameGenerator("log"))
+        .flattener(new ClassicFlattener())
+        .multiProcess("com.example:remote")
+        .build();
+    for (int i = 0; i < 10; i++) {
+      main.println(LogLevel.INFO, "tag", "main " + i);
+      remote.println(LogLevel.INFO, "tag", "remote " + i);
+    }
+    assertTrue(ZLog.drain(10000));
+
+    List<File> segments = MergedLogReader.findSegments(new File(logPath), "log");
+    assertEquals(2, segments.size());
+    assertEquals("log@com_example", segments.get(0).getName());
+    assertEquals("log@com_example_remote", segments.get(1).getName());
+
+    MergedLogReader reader = new MergedLogReader(segments);
+    int count = 0;
+    while (reader.readLog() != null) {
+      count++;
+    }
+    reader.close();
+    assertEquals(20, count);
+  }
+
+  @Test
+  public void testEmptyFile() throws IOException {
+    MergedLogReader reader = new MergedLogReader(Arrays.asList(write("log@empty")));
+    assertNull(reader.readLog());
+    reader.close();
+  }
+
+  private File write(String name, String... lines) throws IOException {
+    File file = new File(logPath, name);
+    FileWriter writer = new FileWriter(file);
+    for (String line : lines) {
+      writer.write(line);
+      writer.write('\n');
+    }
+    writer.close();
+    return file;
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.printer.remote;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FileSpoolTest {
+
+  File folder = new File("build/test/filespool");
+
+  @Before
+  public void setup() {
+    File[] files = folder.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+  }
+
+  @Test
+  public void testReopen() throws IOException {
+    FileSpool spool = new FileSpool(folder);
+    spool.append(new byte[]{1});
+    spool.append(new byte[]{2, 2});
+    spool.append(new byte[]{3, 3, 3});
+    spool.remove();
+    spool.close();
+
+    // Simulate a crash in the middle of appending.
+    RandomAccessFile data = new RandomAccessFile(new File(folder, "spool.dat"), "rw");
+    data.seek(data.length());
+    data.writeInt(100);
+    data.write(new byte[]{4, 4});
+    data.close();
+
+    spool = new FileSpool(folder);
+    assertArrayEquals(new byte[]{2, 2}, spool.peek());
+    spool.remove();
+    assertArrayEquals(new byte[]{3, 3, 3}, spool.peek());
+    spool.remove();
+    assertTrue(spool.isEmpty());
+    assertNull(spool.peek());
+    spool.close();
+  }
+
+  @Test
+  public void testDropOldestWhenFull() throws IOException {
+    FileSpool spool = new FileSpool(folder, 100);
+    for (int i = 0; i < 20; i++) {
+      spool.append(new byte[]{(byte) i, 0, 0, 0, 0, 0});
+    }
+    // 10 bytes per record, the latest 10 records are kept.
+    for (int i = 10; i < 20; i++) {
+      assertArrayEquals(new byte[]{(byte) i, 0, 0, 0, 0, 0}, spool.peek());
+      spool.remove();
+    }
+    assertTrue(spool.isEmpty());
+    spool.close();
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.printer.remote;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MappedQueueTest {
+
+  File folder = new File("build/test/mappedqueue");
+
+  @Before
+  public void setup() {
+    File[] files = folder.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+  }
+
+  @Test
+  public void testAcrossSegmentsAndReopen() throws IOException {
+    // 4 records of 14 bytes in a segment, the rest 8 bytes are wasted.
+    MappedQueue queue = new MappedQueue(folder, 64, 100);
+    for (int i = 0; i < 10; i++) {
+      queue.append(record(i));
+    }
+    assertEquals(3, countSegments());
+    for (int i = 0; i < 5; i++) {
+      assertArrayEquals(record(i), queue.peek());
+      queue.remove();
+    }
+    queue.close();
+
+    // The first segment is fully consumed.
+    assertEquals(2, countSegments());
+
+    queue = new MappedQueue(folder, 64, 100);
+    for (int i = 5; i < 10; i++) {
+      assertArrayEquals(record(i), queue.peek());
+      queue.remove();
+    }
+    assertTrue(queue.isEmpty());
+    assertNull(queue.peek());
+    queue.append(record(10));
+    assertArrayEquals(record(10), queue.peek());
+    queue.close();
+  }
+
+  @Test
+  public void testDropOldestSegment() throws IOException {
+    MappedQueue queue = new MappedQueue(folder, 64, 2);
+    for (int i = 0; i < 9; i++) {
+      queue.append(record(i));
+    }
+    // Only the last 2 segments are kept.
+    for (int i = 4; i < 9; i++) {
+      assertArrayEquals(record(i), queue.peek());
+      queue.remove();
+    }
+    assertTrue(queue.isEmpty());
+    queue.close();
+  }
+
+  private static byte[] record(int i) {
+    byte[] record = new byte[10];
+    record[0] = (byte) i;
+    return record;
+  }
+
+  private int countSegments() {
+    int count = 0;
+    for (String name : folder.list()) {
+      if (name.startsWith("segment-")) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2026 cl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cl.zlog.printer.remote;
+
+import com.cl.zlog.LogLevel;
+import com.cl.zlog.printer.RemotePrinter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RemotePrinterTest {
+
+  String spoolPath = "build/test/remoteprinter";
+
+  final List<String> received = Collections.synchronizedList(new ArrayList<String>());
+
+  @Before
+  public void setup() {
+    File[] files = new File(spoolPath).listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+  }
+
+  @After
+  public void tearDown() {
+    received.clear();
+  }
+
+  @Test
+  public void testHttpWithRetry() throws Exception {
+    final AtomicInteger failures = new AtomicInteger(2);
+    HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/logs", new HttpHandler() {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        byte[] body = readAll(exchange.getRequestBody());
+        if (failures.getAndDecrement() > 0) {
+          // Server is down, the batch should be sent again later.
+          exchange.sendResponseHeaders(503, -1);
+        } else {
+          assertEquals("gzip", exchange.getRequestHeaders().getFirst("Content-Encoding"));
+          unzip(body);
+          exchange.sendResponseHeaders(204, -1);
+        }
+        exchange.close();
+      }
+    });
+    server.start();
+    try {
+      String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/logs";
+      RemotePrinter printer = new RemotePrinter.Builder(spoolPath, new HttpTransport(url))
+          .batchSize(100)
+          .backoff(10, 20)
+          .build();
+      int count = 250;
+      for (int i = 0; i < count; i++) {
+        printer.println(LogLevel.INFO, "tag", "message " + i);
+      }
+      drainUntilSent(printer);
+      assertReceived(count);
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  @Test
+  public void testSocket() throws Exception {
+    final ServerSocket serverSocket = new ServerSocket(0);
+    Thread server = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          Socket socket = serverSocket.accept();
+          DataInputStream in = new DataInputStream(socket.getInputStream());
+          while (true) {
+            byte[] batch = new byte[in.readInt()];
+            in.readFully(batch);
+            unzip(batch);
+          }
+        } catch (EOFException ignored) {
+        } catch (IOException e) {
+          e.printStackTrace();
+        }
+      }
+    });
+    server.start();
+    try {
+      RemotePrinter printer = new RemotePrinter.Builder(spoolPath,
+          new SocketTransport("127.0.0.1", serverSocket.getLocalPort()))
+          .batchSize(30)
+          .build();
+      int count = 100;
+      for (int i = 0; i < count; i++) {
+        printer.println(LogLevel.INFO, "tag", "message " + i);
+      }
+      drainUntilSent(printer);
+      // No acknowledgement in the socket protocol, wait for the server to read.
+      long deadline = System.currentTimeMillis() + 5000;
+      while (received.size() < count && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      assertReceived(count);
+    } finally {
+      serverSocket.close();
+    }
+  }
+
+  private static void drainUntilSent(RemotePrinter printer) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (!printer.drain(1000)) {
+      assertTrue("Drain timeout", System.currentTimeMillis() < deadline);
+      Thread.sleep(20);
+    }
+  }
+
+  private void assertReceived(int count) {
+    assertEquals(count, received.size());
+    for (int i = 0; i < count; i++) {
+      String line = received.get(i);
+      assertTrue("Unexpected log: " + line, line.endsWith("message " + i));
+    }
+  }
+
+  private void unzip(byte[] batch) throws IOException {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(
+        new GZIPInputStream(new ByteArrayInputStream(batch)), "UTF-8"));
+    String line;
+    while ((line = reader.readLine()) != null) {
+      received.add(line);
+    }
+  }
+
+  private static byte[] readAll(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[1024];
+    int read;
+    while ((read = in.read(buffer)) != -1) {
+      out.write(buffer, 0, read);
+    }
+    return out.toByteArray();
+  }
+}